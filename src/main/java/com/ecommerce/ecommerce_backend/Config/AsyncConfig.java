@@ -0,0 +1,51 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    // Order event listeners (analytics and the like). Bounded so a slow database cannot pile up work in memory;
+    // dropped events are repaired by the nightly reconciliation.
+    @Bean(name = "analyticsExecutor")
+    public Executor analyticsExecutor(@Value("${analytics.executor.threads:2}") int threads,
+                                      @Value("${analytics.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analytics-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.warn("Analytics queue full ({} pending), dropping event", pool.getQueue().size()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    // Parallel lookups inside a single checkout. When all threads are busy the lookup is rejected and the checkout
+    // answers 503 at once; running it on the request thread would escape the checkout deadline.
+    @Bean(name = "checkoutIoExecutor")
+    public ThreadPoolTaskExecutor checkoutIoExecutor(@Value("${checkout.fanout.threads:32}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("checkout-io-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
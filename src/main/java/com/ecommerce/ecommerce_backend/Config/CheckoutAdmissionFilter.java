@@ -0,0 +1,120 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Admission control for the checkout endpoints. At most 'maxConcurrent' checkouts run at once (kept below the
+// connection pool size), a bounded number wait in FIFO order, and everything beyond that is rejected immediately.
+// Waiting requests hold a servlet thread, so the queue bound also caps how many threads checkout can take away
+// from browsing. A rejection tells the client where it stood in the queue and when to retry.
+public class CheckoutAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutAdmissionFilter.class);
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double averageServiceMs = 200;
+
+    public CheckoutAdmissionFilter(int maxConcurrent, int maxQueue, long maxWaitMs) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!"POST".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // The timed form honours fairness; plain tryAcquire() would let a new arrival take a permit ahead of the queue
+        if (!tryAcquireNow()) {
+            int position = waiting.incrementAndGet();
+            try {
+                if (position > maxQueue) {
+                    reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, position, "Checkout is at capacity, please retry shortly");
+                    return;
+                }
+                boolean acquired;
+                try {
+                    acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    acquired = false;
+                }
+                if (!acquired) {
+                    reject(response, 429, position, "Too many checkouts in progress, please retry shortly");
+                    return;
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        admitted.incrementAndGet();
+        long started = System.currentTimeMillis();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+            averageServiceMs = averageServiceMs * 0.9 + (System.currentTimeMillis() - started) * 0.1;
+        }
+    }
+
+    private boolean tryAcquireNow() {
+        try {
+            return permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, int position, String message) throws IOException {
+        rejected.incrementAndGet();
+        // Rough time for the current queue to drain at the observed service rate
+        long retryAfter = Math.max(1, (long) Math.ceil(position * averageServiceMs / maxConcurrent / 1000.0));
+        logger.warn("Checkout rejected with {} (waiting: {}, retry after {}s)", status, waiting.get(), retryAfter);
+        response.setStatus(status);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"success\": false, \"message\": \"" + message + "\", \"queuePosition\": " + position
+                + ", \"retryAfterSeconds\": " + retryAfter + "}");
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -1,15 +1,19 @@
 package com.ecommerce.ecommerce_backend.Config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class EncoderConfig {
+
+    // Raising the strength takes effect for existing users at their next successful login (see UserService.updatePassword)
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength,
+                                                 @Value("${security.bcrypt.threads:2}") int threads,
+                                                 @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                                 @Value("${security.bcrypt.max-wait-ms:2000}") long maxWaitMs) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity, maxWaitMs);
     }
 }
-
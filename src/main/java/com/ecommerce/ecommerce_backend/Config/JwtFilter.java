@@ -1,6 +1,9 @@
 package com.ecommerce.ecommerce_backend.Config;
 
+import com.ecommerce.ecommerce_backend.Service.TokenRevocationService;
 import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -26,9 +29,11 @@ public class JwtFilter extends OncePerRequestFilter {
     private static final String TOKEN_PREFIX = "Bearer ";
 
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtFilter(JwtUtil jwtUtil) {
+    public JwtFilter(JwtUtil jwtUtil, TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -61,35 +66,36 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String token = authorizationHeader.substring(TOKEN_PREFIX.length());
-        String username;
+        VerifiedToken verified;
         try {
-            username = jwtUtil.extractUsername(token);
-            if (username == null) {
-                logger.warn("Could not extract username from token for URI: {}", requestURI);
-                chain.doFilter(request, response);
-                return;
-            }
-            logger.debug("Extracted username: {} for URI: {}", username, requestURI);
-        } catch (Exception e) {
-            logger.error("Error extracting username from token for URI {}: {}", requestURI, e.getMessage());
+            verified = jwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Token rejected for URI {}: {}", requestURI, e.getMessage());
+            chain.doFilter(request, response);
+            return;
+        }
+        if (verified.isRefreshToken()) {
+            logger.warn("Refresh token presented as bearer token for URI {}", requestURI);
+            chain.doFilter(request, response);
+            return;
+        }
+        if (tokenRevocationService.isRevoked(verified)) {
+            logger.warn("Revoked token used for URI {} by {}", requestURI, verified.getSubject());
             chain.doFilter(request, response);
             return;
         }
 
-        if (SecurityContextHolder.getContext().getAuthentication() == null && jwtUtil.validateToken(token, username)) {
-            Set<String> roles = jwtUtil.extractRoles(token);
-            Set<SimpleGrantedAuthority> authorities = roles.stream()
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Set<SimpleGrantedAuthority> authorities = verified.getRoles().stream()
                     .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                     .collect(Collectors.toSet());
 
             UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    username, null, authorities
+                    verified.getSubject(), null, authorities
             );
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
-            logger.debug("Authentication set for user: {} with roles: {} for URI: {}", username, roles, requestURI);
-        } else {
-            logger.warn("Token validation failed for user: {}. Expired: {} for URI: {}", username, jwtUtil.isTokenExpired(token), requestURI);
+            logger.debug("Authentication set for user: {} with roles: {} for URI: {}", verified.getSubject(), verified.getRoles(), requestURI);
         }
 
         chain.doFilter(request, response);
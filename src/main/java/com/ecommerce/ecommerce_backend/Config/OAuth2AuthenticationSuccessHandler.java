@@ -1,7 +1,7 @@
 package com.ecommerce.ecommerce_backend.Config;
 
 import com.ecommerce.ecommerce_backend.entity.User;
-import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.Service.RefreshTokenService;
 import com.ecommerce.ecommerce_backend.Service.UserService;
 import com.ecommerce.ecommerce_backend.util.JwtUtil;
 import org.slf4j.Logger;
@@ -10,7 +10,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -18,7 +17,6 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.Set;
-import java.util.UUID;
 
 @Component
 public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
@@ -29,14 +27,11 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserRepository userRepository;
+    private RefreshTokenService refreshTokenService;
 
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
     public OAuth2AuthenticationSuccessHandler() {
         super("https://svlnteckart.netlify.app/auth/success");
         setUseReferer(false);
@@ -64,34 +59,16 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
         final String normalizedEmail = email.toLowerCase();
         logger.debug("Processing OAuth2 user with email: {}", normalizedEmail);
 
-        User user = userRepository.findByEmail(normalizedEmail).orElseGet(() -> {
-            logger.info("User with email {} not found, registering new user", normalizedEmail);
-            User newUser = new User();
-            newUser.setEmail(normalizedEmail);
-
-            String baseUsername = (name != null ? name.replaceAll("[^a-zA-Z0-9]", "").toLowerCase() : normalizedEmail.split("@")[0]).toLowerCase();
-            String username = baseUsername;
-            int counter = 1;
-
-            while (userRepository.findByUsername(username).isPresent()) {
-                username = baseUsername + counter++;
-                logger.debug("Username {} already exists, trying new username: {}", baseUsername, username);
-            }
-
-            newUser.setUsername(username);
-            newUser.setPassword(passwordEncoder.encode(UUID.randomUUID().toString()));
-            logger.info("Generated username: {} for new user with email: {}", username, normalizedEmail);
-
-            try {
-                return userService.registerUser(newUser);
-            } catch (Exception e) {
-                logger.error("Failed to register new user with email: {}. Error: {}", normalizedEmail, e.getMessage(), e);
-                throw new RuntimeException("Failed to register new user", e);
-            }
-        });
-
-        String accessToken = jwtUtil.generateAccessToken(user.getUsername(), Set.of("USER"));
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+        User user;
+        try {
+            user = userService.findOrRegisterOAuth2User(normalizedEmail, name).getUser();
+        } catch (Exception e) {
+            logger.error("Failed to register new user with email: {}. Error: {}", normalizedEmail, e.getMessage(), e);
+            throw new RuntimeException("Failed to register new user", e);
+        }
+
+        String accessToken = jwtUtil.generateAccessToken(user.getUsername(), Set.of("USER"), user.getId());
+        String refreshToken = refreshTokenService.issue(user.getUsername(), user.getId(), Set.of("USER"));
         logger.debug("Generated JWT tokens for user: {}", user.getUsername());
 
         String redirectUrl = getDefaultTargetUrl() + "?token=" + accessToken + "&refreshToken=" + refreshToken;
@@ -0,0 +1,12 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// The password hashing pool is saturated. An AuthenticationException, so a login that hits it fails as an
+// authentication error rather than a server error; callers answer 503 and let the client retry.
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import com.ecommerce.ecommerce_backend.util.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Throttles the public endpoints that end in BCrypt, SMTP or an insert (login, registration, password reset,
+// contact form). Runs first in the chain, so a rejected request costs a map lookup and never reaches security,
+// the database or the mail server. Each policy limits by client IP and, when the JSON body names one, by account
+// (username or email), so one IP cannot spray many accounts and many IPs cannot hammer one account.
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    // Decoded, context-relative and without ;params, so /api/auth/%6Cogin is still /api/auth/login
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    public static class Policy {
+        private final String name;
+        private final String path;
+        private final TokenBucketRateLimiter perIp;
+        private final String accountField;
+        private final TokenBucketRateLimiter perAccount;
+
+        // accountField and perAccount may be null for IP-only policies
+        public Policy(String name, String path, TokenBucketRateLimiter perIp, String accountField,
+                      TokenBucketRateLimiter perAccount) {
+            this.name = name;
+            this.path = path;
+            this.perIp = perIp;
+            this.accountField = accountField;
+            this.perAccount = perAccount;
+        }
+    }
+
+    private final Map<String, Policy> policies = new LinkedHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public RateLimitFilter(List<Policy> policies) {
+        policies.forEach(policy -> this.policies.put(policy.path, policy));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !policies.containsKey(PATH_HELPER.getPathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Policy policy = policies.get(PATH_HELPER.getPathWithinApplication(request));
+
+        long waitMs = policy.perIp.tryAcquire(request.getRemoteAddr());
+        if (waitMs > 0) {
+            reject(response, policy, "ip " + request.getRemoteAddr(), waitMs);
+            return;
+        }
+
+        if (policy.perAccount != null) {
+            CachedBodyRequest cached = CachedBodyRequest.of(request);
+            if (cached == null) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            String account = readAccount(cached.body, policy.accountField);
+            if (account != null) {
+                waitMs = policy.perAccount.tryAcquire(account);
+                if (waitMs > 0) {
+                    reject(response, policy, "account " + account, waitMs);
+                    return;
+                }
+            }
+            request = cached;
+        }
+        chain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.evict-ms:60000}")
+    public void evictIdle() {
+        for (Policy policy : policies.values()) {
+            policy.perIp.evictIdle();
+            if (policy.perAccount != null) {
+                policy.perAccount.evictIdle();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Policy policy : policies.values()) {
+            Map<String, Object> policyStats = new LinkedHashMap<>();
+            policyStats.put("ipKeys", policy.perIp.size());
+            policyStats.put("ipRejected", policy.perIp.getRejected());
+            if (policy.perAccount != null) {
+                policyStats.put("accountKeys", policy.perAccount.size());
+                policyStats.put("accountRejected", policy.perAccount.getRejected());
+            }
+            stats.put(policy.name, policyStats);
+        }
+        return stats;
+    }
+
+    private String readAccount(byte[] body, String field) {
+        try {
+            JsonNode value = objectMapper.readTree(body).get(field);
+            if (value != null && value.isTextual() && !value.asText().isBlank()) {
+                return value.asText().trim().toLowerCase(Locale.ROOT);
+            }
+        } catch (IOException e) {
+            // Malformed JSON is the controller's to reject; the IP limit still applied
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Policy policy, String key, long waitMs) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+        logger.warn("Rate limited {} for {}, retry in {}s", policy.name, key, retryAfterSeconds);
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"Too many requests, please retry in "
+                + retryAfterSeconds + " seconds\"}");
+    }
+
+    // Buffers the (small) body so it can be inspected here and still read by the controller
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        // Null if the body is larger than MAX_BODY_BYTES
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : new CachedBodyRequest(request, body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -82,7 +82,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> {
                     logger.debug("Configuring request matchers");
                     authorize
-                            .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/**", "/api/reset-password/**", "/oauth2/**", "/login/oauth2/code/**", "/api/oauth2/authorization/**", "/favicon.ico", "/accounts/**", "/error", "/api/products", "/api/products/**", "/api/contact").permitAll()
+                            .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/**", "/api/reset-password/**", "/oauth2/**", "/login/oauth2/code/**", "/api/oauth2/authorization/**", "/favicon.ico", "/accounts/**", "/error", "/api/products", "/api/products/**", "/api/contact", "/.well-known/jwks.json").permitAll()
                             .requestMatchers("/api/auth/admin/**").hasRole("ADMIN")
                             .requestMatchers("/api/admin/**").hasRole("ADMIN")
                             .anyRequest().authenticated();
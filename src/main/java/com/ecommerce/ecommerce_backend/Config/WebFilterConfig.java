@@ -0,0 +1,71 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import com.ecommerce.ecommerce_backend.util.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+@Configuration
+public class WebFilterConfig {
+
+    @Bean
+    public CheckoutAdmissionFilter checkoutAdmissionFilter(@Value("${checkout.admission.max-concurrent:8}") int maxConcurrent,
+                                                           @Value("${checkout.admission.max-queue:50}") int maxQueue,
+                                                           @Value("${checkout.admission.max-wait-ms:5000}") long maxWaitMs) {
+        return new CheckoutAdmissionFilter(maxConcurrent, maxQueue, maxWaitMs);
+    }
+
+    // Runs after Spring Security so unauthenticated requests never take a checkout slot
+    @Bean
+    public FilterRegistrationBean<CheckoutAdmissionFilter> checkoutAdmissionRegistration(CheckoutAdmissionFilter filter) {
+        FilterRegistrationBean<CheckoutAdmissionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/orders/create-payment-intent", "/api/orders/checkout");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(@Value("${rate-limit.max-keys:100000}") int maxKeys,
+                                           @Value("${rate-limit.login.per-ip:20/60}") String loginPerIp,
+                                           @Value("${rate-limit.login.per-account:10/300}") String loginPerAccount,
+                                           @Value("${rate-limit.register.per-ip:5/600}") String registerPerIp,
+                                           @Value("${rate-limit.register.per-account:3/3600}") String registerPerAccount,
+                                           @Value("${rate-limit.reset.per-ip:5/600}") String resetPerIp,
+                                           @Value("${rate-limit.reset.per-account:3/3600}") String resetPerAccount,
+                                           @Value("${rate-limit.reset-confirm.per-ip:10/600}") String resetConfirmPerIp,
+                                           @Value("${rate-limit.contact.per-ip:5/600}") String contactPerIp,
+                                           @Value("${rate-limit.contact.per-account:3/600}") String contactPerAccount) {
+        TokenBucketRateLimiter registerIp = TokenBucketRateLimiter.fromSpec(registerPerIp, maxKeys, 16);
+        TokenBucketRateLimiter registerAccount = TokenBucketRateLimiter.fromSpec(registerPerAccount, maxKeys, 16);
+        return new RateLimitFilter(List.of(
+                new RateLimitFilter.Policy("login", "/api/auth/login",
+                        TokenBucketRateLimiter.fromSpec(loginPerIp, maxKeys, 16),
+                        "username", TokenBucketRateLimiter.fromSpec(loginPerAccount, maxKeys, 16)),
+                // Customer and admin sign-ups share one budget
+                new RateLimitFilter.Policy("register", "/api/auth/register", registerIp, "email", registerAccount),
+                new RateLimitFilter.Policy("registerAdmin", "/api/auth/register/admin", registerIp, "email", registerAccount),
+                new RateLimitFilter.Policy("passwordReset", "/api/reset-password",
+                        TokenBucketRateLimiter.fromSpec(resetPerIp, maxKeys, 16),
+                        "email", TokenBucketRateLimiter.fromSpec(resetPerAccount, maxKeys, 16)),
+                new RateLimitFilter.Policy("passwordResetConfirm", "/api/reset-password/reset",
+                        TokenBucketRateLimiter.fromSpec(resetConfirmPerIp, maxKeys, 16), null, null),
+                new RateLimitFilter.Policy("contact", "/api/contact",
+                        TokenBucketRateLimiter.fromSpec(contactPerIp, maxKeys, 16),
+                        "email", TokenBucketRateLimiter.fromSpec(contactPerAccount, maxKeys, 16))));
+    }
+
+    // Runs before everything else, Spring Security included, so throttled requests cost next to nothing
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/auth/login", "/api/auth/register", "/api/auth/register/admin",
+                "/api/reset-password", "/api/reset-password/reset", "/api/contact");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
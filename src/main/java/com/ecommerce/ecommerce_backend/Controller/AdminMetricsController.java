@@ -0,0 +1,82 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.Config.BoundedPasswordEncoder;
+import com.ecommerce.ecommerce_backend.Config.CheckoutAdmissionFilter;
+import com.ecommerce.ecommerce_backend.Config.RateLimitFilter;
+import com.ecommerce.ecommerce_backend.Service.IdentityService;
+import com.ecommerce.ecommerce_backend.Service.PaymentGateway;
+import com.ecommerce.ecommerce_backend.Service.RefreshTokenService;
+import com.ecommerce.ecommerce_backend.Service.RefundService;
+import com.ecommerce.ecommerce_backend.Service.TokenRevocationService;
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMetricsController {
+
+    private final PaymentGateway paymentGateway;
+    private final CheckoutAdmissionFilter checkoutAdmissionFilter;
+    private final RefundService refundService;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final IdentityService identityService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final RateLimitFilter rateLimitFilter;
+
+    public AdminMetricsController(PaymentGateway paymentGateway, CheckoutAdmissionFilter checkoutAdmissionFilter,
+                                  RefundService refundService, JwtUtil jwtUtil, TokenRevocationService tokenRevocationService,
+                                  RefreshTokenService refreshTokenService, IdentityService identityService,
+                                  BoundedPasswordEncoder passwordEncoder, RateLimitFilter rateLimitFilter) {
+        this.paymentGateway = paymentGateway;
+        this.checkoutAdmissionFilter = checkoutAdmissionFilter;
+        this.refundService = refundService;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.identityService = identityService;
+        this.passwordEncoder = passwordEncoder;
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    @GetMapping("/auth")
+    public ResponseEntity<?> getAuthMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("tokenCache", jwtUtil.getCacheMetrics());
+        metrics.put("revocations", tokenRevocationService.getStats());
+        metrics.put("refreshFamilies", refreshTokenService.getCacheStats());
+        metrics.put("identities", identityService.getCacheStats());
+        metrics.put("passwordHashing", passwordEncoder.getStats());
+        metrics.put("rateLimits", rateLimitFilter.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    @GetMapping("/payments")
+    public ResponseEntity<?> getPaymentMetrics() {
+        return ResponseEntity.ok(paymentGateway.getMetrics());
+    }
+
+    @GetMapping("/refunds")
+    public ResponseEntity<?> getRefundMetrics() {
+        return ResponseEntity.ok(refundService.getQueueStats());
+    }
+
+    @GetMapping("/checkout")
+    public ResponseEntity<?> getCheckoutMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inFlight", checkoutAdmissionFilter.getInFlight());
+        metrics.put("waiting", checkoutAdmissionFilter.getWaiting());
+        metrics.put("admitted", checkoutAdmissionFilter.getAdmitted());
+        metrics.put("rejected", checkoutAdmissionFilter.getRejected());
+        return ResponseEntity.ok(metrics);
+    }
+}
@@ -0,0 +1,206 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.entity.BulkTransitionRequest;
+import com.ecommerce.ecommerce_backend.entity.BulkTransitionResult;
+import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderSearchCriteria;
+import com.ecommerce.ecommerce_backend.entity.ShipmentStatus;
+import com.ecommerce.ecommerce_backend.Service.BulkCancellationService;
+import com.ecommerce.ecommerce_backend.Service.OrderExportService;
+import com.ecommerce.ecommerce_backend.Service.OrderSearchService;
+import com.ecommerce.ecommerce_backend.Service.OrderStatusService;
+import com.ecommerce.ecommerce_backend.Service.RefundService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/orders")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminOrderController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminOrderController.class);
+
+    private final OrderStatusService orderStatusService;
+    private final OrderSearchService orderSearchService;
+    private final OrderExportService orderExportService;
+    private final BulkCancellationService bulkCancellationService;
+    private final RefundService refundService;
+
+    public AdminOrderController(OrderStatusService orderStatusService, OrderSearchService orderSearchService,
+                                OrderExportService orderExportService, BulkCancellationService bulkCancellationService,
+                                RefundService refundService) {
+        this.orderStatusService = orderStatusService;
+        this.orderSearchService = orderSearchService;
+        this.orderExportService = orderExportService;
+        this.bulkCancellationService = bulkCancellationService;
+        this.refundService = refundService;
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchOrders(@RequestParam(required = false) String status,
+                                          @RequestParam(required = false) String shipmentStatus,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(required = false) String email,
+                                          @RequestParam(required = false) String paymentIntentId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "50") int size) {
+        try {
+            OrderSearchCriteria criteria = new OrderSearchCriteria();
+            criteria.setStatus(status);
+            criteria.setShipmentStatus(shipmentStatus);
+            criteria.setFrom(from);
+            criteria.setTo(to);
+            criteria.setEmail(email);
+            criteria.setPaymentIntentId(paymentIntentId);
+            return ResponseEntity.ok(orderSearchService.search(criteria, cursor, size));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid order search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Order search failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Order search failed", "details", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(defaultValue = "csv") String format,
+                                          @RequestParam(defaultValue = "false") boolean gzip) {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.from(format);
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("'from' must be before 'to'");
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+
+        if (!orderExportService.tryAcquire()) {
+            logger.warn("Rejecting order export, too many exports running");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(Map.of("success", false, "message", "Too many exports in progress, retry later"));
+        }
+
+        logger.info("Starting order export from {} to {} as {} (gzip: {})", from, to, exportFormat, gzip);
+        StreamingResponseBody body = outputStream -> {
+            try {
+                orderExportService.export(from, to, exportFormat, gzip, outputStream);
+            } finally {
+                orderExportService.release();
+            }
+        };
+
+        String extension = exportFormat == OrderExportService.Format.CSV ? "csv" : "jsonl";
+        MediaType contentType = exportFormat == OrderExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = "orders-" + from.toLocalDate() + "-" + to.toLocalDate() + "." + extension;
+        if (gzip) {
+            contentType = MediaType.parseMediaType("application/gzip");
+            filename += ".gz";
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/bulk-transition")
+    public ResponseEntity<?> bulkTransition(@Valid @RequestBody BulkTransitionRequest request) {
+        try {
+            ShipmentStatus from = ShipmentStatus.fromLabel(request.getFrom());
+            ShipmentStatus to = ShipmentStatus.fromLabel(request.getTo());
+            logger.info("Bulk shipment transition requested for {} orders: {} -> {}", request.getOrderIds().size(), from, to);
+
+            BulkTransitionResult result = orderStatusService.bulkTransitionShipment(request.getOrderIds(), from, to);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("requested", result.getRequested());
+            response.put("updated", result.getUpdated());
+            response.put("conflicts", result.getConflicts());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Invalid bulk transition: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Bulk transition failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Bulk transition failed", "details", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/shipment-status")
+    public ResponseEntity<?> updateShipmentStatus(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        try {
+            ShipmentStatus target = ShipmentStatus.fromLabel((String) request.get("status"));
+            Long expectedVersion = request.get("version") != null ? Long.valueOf(request.get("version").toString()) : null;
+
+            CustomerOrder order = orderStatusService.transitionShipment(id, target, expectedVersion);
+            return ResponseEntity.ok(Map.of("success", true, "orderId", order.getId(),
+                    "shipmentStatus", order.getShipmentStatus(), "version", order.getVersion()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.warn("Concurrent update on order {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("success", false, "message", "Order was modified concurrently, reload and retry"));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Invalid shipment status update for order {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to update shipment status for order {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to update shipment status: " + e.getMessage()));
+        }
+    }
+
+    // Cancels and refunds every paid, not yet shipped order containing the product, in the background
+    @PostMapping("/cancel-by-product/{productId}")
+    public ResponseEntity<?> cancelByProduct(@PathVariable Long productId) {
+        try {
+            BulkCancellationService.Progress progress = bulkCancellationService.cancelByProduct(productId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress.toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to start bulk cancellation for product {}: {}", productId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to start bulk cancellation", "details", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/bulk-cancellations/{trackingId}")
+    public ResponseEntity<?> getBulkCancellation(@PathVariable String trackingId) {
+        try {
+            return ResponseEntity.ok(bulkCancellationService.getProgress(trackingId).toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/refund")
+    public ResponseEntity<?> getRefund(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(refundService.toStatus(refundService.getRefund(id)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.entity.RollupGranularity;
+import com.ecommerce.ecommerce_backend.Service.CoPurchaseService;
+import com.ecommerce.ecommerce_backend.Service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final SalesRollupService salesRollupService;
+    private final CoPurchaseService coPurchaseService;
+
+    public AnalyticsController(SalesRollupService salesRollupService, CoPurchaseService coPurchaseService) {
+        this.salesRollupService = salesRollupService;
+        this.coPurchaseService = coPurchaseService;
+    }
+
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(@RequestParam(defaultValue = "day") String granularity,
+                                      @RequestParam(defaultValue = "total") String level,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(required = false) String category) {
+        try {
+            return ResponseEntity.ok(salesRollupService.getSeries(RollupGranularity.from(granularity), level, from, to, category));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid sales analytics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Sales analytics failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Sales analytics failed", "details", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/sales/summary")
+    public ResponseEntity<?> getSalesSummary(@RequestParam(defaultValue = "category") String level,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(salesRollupService.getSummary(level, from, to));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid sales summary request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Sales summary failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Sales summary failed", "details", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/sales/reconcile")
+    public ResponseEntity<?> reconcile(@RequestParam(defaultValue = "3") int days) {
+        try {
+            int rows = salesRollupService.reconcile(days);
+            return ResponseEntity.ok(Map.of("success", true, "rows", rows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Sales rollup reconciliation failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Reconciliation failed", "details", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recommendations/rebuild")
+    public ResponseEntity<?> rebuildRecommendations() {
+        coPurchaseService.rebuildInBackground();
+        return ResponseEntity.accepted().body(Map.of("success", true, "message", "Co-purchase rebuild started"));
+    }
+}
@@ -1,19 +1,25 @@
 package com.ecommerce.ecommerce_backend.Controller;
 
+import com.ecommerce.ecommerce_backend.Config.PasswordHashingBusyException;
 import com.ecommerce.ecommerce_backend.entity.RegistrationRequest;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.entity.Admin;
-import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
-import com.ecommerce.ecommerce_backend.repository.UserRepository;
-import com.ecommerce.ecommerce_backend.repository.AdminRepository;
-import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.entity.Identity;
+import com.ecommerce.ecommerce_backend.Service.AdminUserService;
+import com.ecommerce.ecommerce_backend.Service.DuplicateAccountException;
+import com.ecommerce.ecommerce_backend.Service.IdentityService;
+import com.ecommerce.ecommerce_backend.Service.RefreshTokenService;
+import com.ecommerce.ecommerce_backend.Service.TokenRevocationService;
 import com.ecommerce.ecommerce_backend.Service.UserService;
 import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,6 +31,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 import java.util.regex.Pattern;
@@ -39,23 +46,26 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
-    private final CustomerOrderRepository customerOrderRepository;
+    private final AdminUserService adminUserService;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final IdentityService identityService;
 
     public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
-                          UserRepository userRepository, AdminRepository adminRepository,
-                          CustomerOrderRepository customerOrderRepository,
-                          UserService userService, PasswordEncoder passwordEncoder) {
+                          AdminUserService adminUserService,
+                          UserService userService, PasswordEncoder passwordEncoder,
+                          TokenRevocationService tokenRevocationService, RefreshTokenService refreshTokenService,
+                          IdentityService identityService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
-        this.userRepository = userRepository;
-        this.adminRepository = adminRepository;
-        this.customerOrderRepository = customerOrderRepository;
+        this.adminUserService = adminUserService;
         this.userService = userService;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.identityService = identityService;
     }
 
     @PostMapping("/login")
@@ -75,31 +85,22 @@ public class AuthController {
             logger.info("Authentication successful for username: {}", username);
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-            String accessToken;
-            String refreshToken;
-            Map<String, Object> responseBody;
-
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                accessToken = jwtUtil.generateAccessToken(user.getUsername(), Set.of("USER"));
-                refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
-                responseBody = buildUserResponse(accessToken, refreshToken, user, Set.of("USER"));
-            } else if (adminOpt.isPresent()) {
-                Admin admin = adminOpt.get();
-                accessToken = jwtUtil.generateAccessToken(admin.getUsername(), admin.getRoles());
-                refreshToken = jwtUtil.generateRefreshToken(admin.getUsername());
-                responseBody = buildUserResponse(accessToken, refreshToken, admin, admin.getRoles());
-            } else {
-                throw new RuntimeException("User not found");
-            }
+            // Already cached by the authentication above
+            Identity identity = identityService.findByUsername(username)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            String accessToken = jwtUtil.generateAccessToken(identity.getUsername(), identity.getRoles(), identity.getId());
+            String refreshToken = refreshTokenService.issue(identity.getUsername(), identity.getId(), identity.getRoles());
+            Map<String, Object> responseBody = buildUserResponse(accessToken, refreshToken, identity);
 
             response.setHeader("Authorization", TOKEN_PREFIX + accessToken);
             return ResponseEntity.ok(responseBody);
         } catch (BadCredentialsException e) {
             logger.warn("Authentication failed for username: {} - Invalid credentials", username);
             return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+        } catch (PasswordHashingBusyException e) {
+            logger.warn("Login for username: {} shed, password hashing is saturated", username);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         } catch (Exception e) {
             logger.error("Error during login for username: {} - {}", username, e.getMessage(), e);
             return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
@@ -107,7 +108,6 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    @Transactional
     public ResponseEntity<Map<String, Object>> register(@RequestBody RegistrationRequest request, HttpServletResponse response) {
         String username = request.getUsername();
         String password = request.getPassword();
@@ -127,13 +127,6 @@ public class AuthController {
         email = email.toLowerCase();
         username = username.toLowerCase();
 
-        if (userRepository.findByUsername(username).isPresent() || adminRepository.findByUsername(username).isPresent()) {
-            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Username already exists");
-        }
-        if (userRepository.findByEmail(email).isPresent() || adminRepository.findByEmail(email).isPresent()) {
-            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Email already exists");
-        }
-
         if ("ADMIN".equalsIgnoreCase(role)) {
             logger.warn("Unauthorized attempt to register as ADMIN by username: {}", username);
             return buildErrorResponse(HttpStatus.FORBIDDEN, "Admin registration is restricted");
@@ -142,11 +135,13 @@ public class AuthController {
         User user = createUser(username, password, email);
         try {
             User savedUser = userService.registerUser(user);
-            String accessToken = jwtUtil.generateAccessToken(savedUser.getUsername(), Set.of("USER"));
-            String refreshToken = jwtUtil.generateRefreshToken(savedUser.getUsername());
+            String accessToken = jwtUtil.generateAccessToken(savedUser.getUsername(), Set.of("USER"), savedUser.getId());
+            String refreshToken = refreshTokenService.issue(savedUser.getUsername(), savedUser.getId(), Set.of("USER"));
 
             response.setHeader("Authorization", TOKEN_PREFIX + accessToken);
-            return ResponseEntity.ok(buildUserResponse(accessToken, refreshToken, savedUser, Set.of("USER")));
+            return ResponseEntity.ok(buildUserResponse(accessToken, refreshToken, Identity.of(savedUser)));
+        } catch (DuplicateAccountException e) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (DataIntegrityViolationException e) {
             logger.error("Database error during registration: {}", e.getMessage(), e);
             return buildErrorResponse(HttpStatus.CONFLICT, "Email or username already exists");
@@ -158,7 +153,6 @@ public class AuthController {
 
     @PostMapping("/register/admin")
     @PreAuthorize("hasRole('ADMIN')")
-    @Transactional
     public ResponseEntity<Map<String, Object>> registerAdmin(@RequestBody RegistrationRequest request) {
         String username = request.getUsername();
         String password = request.getPassword();
@@ -177,22 +171,17 @@ public class AuthController {
         email = email.toLowerCase();
         username = username.toLowerCase();
 
-        if (userRepository.findByUsername(username).isPresent() || adminRepository.findByUsername(username).isPresent()) {
-            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Username already exists");
-        }
-        if (userRepository.findByEmail(email).isPresent() || adminRepository.findByEmail(email).isPresent()) {
-            return buildErrorResponse(HttpStatus.BAD_REQUEST, "Email already exists");
-        }
-
         Set<String> roles = new HashSet<>();
         roles.add("ADMIN");
 
         Admin admin = createAdmin(username, password, email, roles);
         try {
             Admin savedAdmin = userService.registerAdmin(admin);
-            String accessToken = jwtUtil.generateAccessToken(savedAdmin.getUsername(), savedAdmin.getRoles());
-            String refreshToken = jwtUtil.generateRefreshToken(savedAdmin.getUsername());
-            return ResponseEntity.ok(buildUserResponse(accessToken, refreshToken, savedAdmin, savedAdmin.getRoles()));
+            String accessToken = jwtUtil.generateAccessToken(savedAdmin.getUsername(), savedAdmin.getRoles(), savedAdmin.getId());
+            String refreshToken = refreshTokenService.issue(savedAdmin.getUsername(), savedAdmin.getId(), savedAdmin.getRoles());
+            return ResponseEntity.ok(buildUserResponse(accessToken, refreshToken, Identity.of(savedAdmin)));
+        } catch (DuplicateAccountException e) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (DataIntegrityViolationException e) {
             logger.error("Database error during admin registration: {}", e.getMessage(), e);
             return buildErrorResponse(HttpStatus.CONFLICT, "Email or username already exists");
@@ -204,83 +193,97 @@ public class AuthController {
 
     @GetMapping("/admin/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Map<String, Object>>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        List<Map<String, Object>> userDetails = new ArrayList<>();
-
-        for (User user : users) {
-            Map<String, Object> userData = new HashMap<>();
-            userData.put("userId", user.getId());
-            userData.put("name", user.getName() != null ? user.getName() : user.getUsername());
-            List<CustomerOrder> orders = customerOrderRepository.findByUserId(user.getId());
-            userData.put("order", orders.stream().map(order -> order.getId() + ": " + order.getStatus()).toList());
-            userData.put("shippingAddress", orders.stream()
-                    .map(CustomerOrder::getShippingAddress)
-                    .filter(Objects::nonNull)
-                    .map(sa -> sa.getFullName() + ", " + sa.getStreetAddress() + ", " + sa.getCity() + ", " + sa.getPostalCode())
-                    .findFirst()
-                    .orElse("N/A"));
-            userData.put("email", user.getEmail());
-            userDetails.add(userData);
+    public ResponseEntity<List<Map<String, Object>>> getAllUsers(@RequestParam(defaultValue = "0") Long afterId,
+                                                                 @RequestParam(defaultValue = "100") int size) {
+        List<Map<String, Object>> userDetails = adminUserService.getUserPage(afterId, size);
+
+        // The next page starts after the last user id of this one
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (!userDetails.isEmpty() && userDetails.size() >= Math.min(Math.max(size, 1), AdminUserService.MAX_PAGE_SIZE)) {
+            builder.header("X-Next-After-Id", String.valueOf(userDetails.get(userDetails.size() - 1).get("userId")));
         }
+        return builder.body(userDetails);
+    }
 
-        return ResponseEntity.ok(userDetails);
+    @GetMapping("/admin/users/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        logger.info("Streaming user export");
+        StreamingResponseBody body = adminUserService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.json\"")
+                .body(body);
     }
 
     @GetMapping("/validate")
     public ResponseEntity<Map<String, Object>> validateToken(@RequestHeader("Authorization") String authorizationHeader) {
         if (authorizationHeader != null && authorizationHeader.startsWith(TOKEN_PREFIX)) {
-            String token = authorizationHeader.substring(TOKEN_PREFIX.length());
-            String username = jwtUtil.extractUsername(token);
-            if (jwtUtil.validateToken(token, username)) {
-                try {
-                    Optional<User> userOpt = userRepository.findByUsername(username);
-                    Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-                    if (userOpt.isPresent()) {
-                        return ResponseEntity.ok(buildUserResponse(null, null, userOpt.get(), Set.of("USER")));
-                    } else if (adminOpt.isPresent()) {
-                        return ResponseEntity.ok(buildUserResponse(null, null, adminOpt.get(), adminOpt.get().getRoles()));
-                    } else {
-                        throw new RuntimeException("User not found");
-                    }
-                } catch (RuntimeException e) {
-                    return buildErrorResponse(HttpStatus.NOT_FOUND, "User not found");
+            VerifiedToken verified = verifyActive(authorizationHeader.substring(TOKEN_PREFIX.length()));
+            if (verified != null) {
+                Optional<Identity> identity = identityService.findByUsername(verified.getSubject());
+                if (identity.isPresent()) {
+                    return ResponseEntity.ok(buildUserResponse(null, null, identity.get()));
                 }
+                return buildErrorResponse(HttpStatus.NOT_FOUND, "User not found");
             }
         }
         return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
     }
 
+    // Revokes the presented access token and, if given, the refresh token. With "allDevices" every token of the
+    // user issued so far is revoked.
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, Object>> logout(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+                                                      @RequestBody(required = false) Map<String, Object> request) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(TOKEN_PREFIX)) {
+            return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid or missing Authorization header");
+        }
+        String accessToken = authorizationHeader.substring(TOKEN_PREFIX.length());
+        VerifiedToken verified = verifyActive(accessToken);
+        if (verified == null) {
+            return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
+        }
+
+        if (request != null && Boolean.TRUE.equals(request.get("allDevices"))) {
+            tokenRevocationService.revokeSubject(verified.getSubject());
+            refreshTokenService.revokeAll(verified.getSubject());
+        } else {
+            tokenRevocationService.revokeToken(verified);
+            if (request != null && request.get("refreshToken") instanceof String refreshToken) {
+                VerifiedToken refresh = jwtUtil.tryVerify(refreshToken);
+                if (refresh != null && refresh.getSubject().equals(verified.getSubject())) {
+                    refreshTokenService.revoke(refreshToken);
+                }
+            }
+        }
+        jwtUtil.evictToken(accessToken);
+        SecurityContextHolder.clearContext();
+        logger.info("Logged out {}", verified.getSubject());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/failure")
     public ResponseEntity<Map<String, Object>> handleAuthenticationFailure() {
         logger.error("Authentication failure handled");
         return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Authentication failed");
     }
 
+    // Rotates the refresh token: the presented one stops working, and presenting it again revokes its family
     @PostMapping("/refresh")
     public ResponseEntity<Map<String, Object>> refreshToken(@RequestBody Map<String, String> request) {
-        String refreshToken = request.get("refreshToken");
-        String username = jwtUtil.extractUsername(refreshToken);
-        if (username != null && !jwtUtil.isTokenExpired(refreshToken)) {
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-            String newAccessToken;
-            String newRefreshToken;
-            if (userOpt.isPresent()) {
-                newAccessToken = jwtUtil.generateAccessToken(userOpt.get().getUsername(), Set.of("USER"));
-                newRefreshToken = jwtUtil.generateRefreshToken(userOpt.get().getUsername());
-            } else if (adminOpt.isPresent()) {
-                newAccessToken = jwtUtil.generateAccessToken(adminOpt.get().getUsername(), adminOpt.get().getRoles());
-                newRefreshToken = jwtUtil.generateRefreshToken(adminOpt.get().getUsername());
-            } else {
-                throw new RuntimeException("User not found");
-            }
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", newAccessToken);
-            response.put("refreshToken", newRefreshToken);
-            return ResponseEntity.ok(response);
+        RefreshTokenService.TokenPair tokens = refreshTokenService.rotate(request.get("refreshToken"));
+        if (tokens == null) {
+            return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
         }
-        return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", tokens.getAccessToken());
+        response.put("refreshToken", tokens.getRefreshToken());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/user")
@@ -292,37 +295,21 @@ public class AuthController {
             return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid or missing Authorization header");
         }
 
-        String token = authorizationHeader.substring(TOKEN_PREFIX.length());
-        String username = jwtUtil.extractUsername(token);
-
-        if (username == null || !jwtUtil.validateToken(token, username)) {
+        VerifiedToken verified = verifyActive(authorizationHeader.substring(TOKEN_PREFIX.length()));
+        if (verified == null) {
             logger.error("Invalid or expired token");
             return buildErrorResponse(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
         }
-
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        Optional<Admin> adminOpt = adminRepository.findByUsername(username);
+        Identity identity = identityService.findByUsername(verified.getSubject())
+                .orElseThrow(() -> new RuntimeException("User not found"));
         Map<String, Object> userDetails = new HashMap<>();
-        Set<String> roles;
-
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            userDetails.put("id", user.getId());
-            userDetails.put("username", user.getUsername());
-            userDetails.put("name", user.getName() != null ? user.getName() : user.getUsername());
-            userDetails.put("email", user.getEmail());
-            roles = Set.of("USER");
-        } else if (adminOpt.isPresent()) {
-            Admin admin = adminOpt.get();
-            userDetails.put("id", admin.getId());
-            userDetails.put("username", admin.getUsername());
-            userDetails.put("email", admin.getEmail());
-            roles = admin.getRoles();
-        } else {
-            throw new RuntimeException("User not found");
+        userDetails.put("id", identity.getId());
+        userDetails.put("username", identity.getUsername());
+        if (!identity.isAdmin()) {
+            userDetails.put("name", identity.getName() != null ? identity.getName() : identity.getUsername());
         }
-
-        userDetails.put("roles", roles);
+        userDetails.put("email", identity.getEmail());
+        userDetails.put("roles", identity.getRoles());
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("user", userDetails);
@@ -351,44 +338,18 @@ public class AuthController {
             return buildErrorResponse(HttpStatus.BAD_REQUEST, "Valid email not provided by OAuth2 provider");
         }
 
-        Optional<User> existingUser = userRepository.findByEmail(email.toLowerCase());
-        User user;
-        boolean isNewUser = false;
+        UserService.OAuth2Account account = userService.findOrRegisterOAuth2User(email, name);
+        User user = account.getUser();
+        boolean isNewUser = account.isCreated();
 
-        if (existingUser.isPresent()) {
-            user = existingUser.get();
-            logger.info("Existing user found with email: {}", email);
-        } else {
-            String username = generateUniqueUsername(name != null ? name : email.split("@")[0]);
-            user = new User();
-            user.setUsername(username);
-            user.setEmail(email.toLowerCase());
-            user.setPassword(passwordEncoder.encode(UUID.randomUUID().toString()));
-            user = userService.registerUser(user);
-            isNewUser = true;
-            logger.info("Registered new user with email: {} and username: {}", email, username);
-        }
-
-        String accessToken = jwtUtil.generateAccessToken(user.getUsername(), Set.of("USER"));
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+        String accessToken = jwtUtil.generateAccessToken(user.getUsername(), Set.of("USER"), user.getId());
+        String refreshToken = refreshTokenService.issue(user.getUsername(), user.getId(), Set.of("USER"));
         response.setHeader("Authorization", TOKEN_PREFIX + accessToken);
-        Map<String, Object> responseBody = buildUserResponse(accessToken, refreshToken, user, Set.of("USER"));
+        Map<String, Object> responseBody = buildUserResponse(accessToken, refreshToken, Identity.of(user));
         responseBody.put("isNewUser", isNewUser);
         return ResponseEntity.ok(responseBody);
     }
 
-    private String generateUniqueUsername(String baseUsername) {
-        baseUsername = baseUsername.replaceAll("[^a-zA-Z0-9]", "").toLowerCase();
-        String username = baseUsername;
-        int counter = 1;
-
-        while (userRepository.findByUsername(username).isPresent() || adminRepository.findByUsername(username).isPresent()) {
-            username = baseUsername + counter++;
-            logger.debug("Username {} already exists, trying new username: {}", baseUsername, username);
-        }
-        return username;
-    }
-
     private boolean isValidInput(String input) {
         return input != null && !input.trim().isEmpty();
     }
@@ -410,7 +371,7 @@ public class AuthController {
         return admin;
     }
 
-    private Map<String, Object> buildUserResponse(String accessToken, String refreshToken, Object entity, Set<String> roles) {
+    private Map<String, Object> buildUserResponse(String accessToken, String refreshToken, Identity identity) {
         Map<String, Object> responseBody = new HashMap<>();
         if (accessToken != null) {
             responseBody.put("token", accessToken);
@@ -418,18 +379,21 @@ public class AuthController {
         if (refreshToken != null) {
             responseBody.put("refreshToken", refreshToken);
         }
-        String username = entity instanceof User ? ((User) entity).getUsername() : ((Admin) entity).getUsername();
-        String email = entity instanceof User ? ((User) entity).getEmail() : ((Admin) entity).getEmail();
-        Long id = entity instanceof User ? ((User) entity).getId() : ((Admin) entity).getId();
         responseBody.put("user", Map.of(
-                "id", id,
-                "username", username,
-                "email", email,
-                "roles", roles
+                "id", identity.getId(),
+                "username", identity.getUsername(),
+                "email", identity.getEmail(),
+                "roles", identity.getRoles()
         ));
         return responseBody;
     }
 
+    // Null unless the token is an access token that verifies and has not been revoked
+    private VerifiedToken verifyActive(String token) {
+        VerifiedToken verified = jwtUtil.tryVerify(token);
+        return verified != null && !verified.isRefreshToken() && !tokenRevocationService.isRevoked(verified) ? verified : null;
+    }
+
     private ResponseEntity<Map<String, Object>> buildErrorResponse(HttpStatus status, String message) {
         Map<String, Object> responseBody = new HashMap<>();
         responseBody.put("success", false);
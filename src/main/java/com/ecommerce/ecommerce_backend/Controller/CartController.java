@@ -1,5 +1,6 @@
 package com.ecommerce.ecommerce_backend.Controller;
 
+import com.ecommerce.ecommerce_backend.Service.PendingPaymentIntentService;
 import com.ecommerce.ecommerce_backend.entity.CartAddRequest;
 import com.ecommerce.ecommerce_backend.entity.CartUpdateRequest;
 import com.ecommerce.ecommerce_backend.entity.CartResponse;
@@ -36,6 +37,9 @@ public class CartController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PendingPaymentIntentService pendingPaymentIntentService;
+
     @PostMapping("/add")
     public ResponseEntity<?> addToCart(@Valid @RequestBody CartAddRequest request) {
         try {
@@ -59,6 +63,7 @@ public class CartController {
             cart.setQuantity(existingCart.isPresent() ? cart.getQuantity() + quantity : quantity);
 
             Cart savedCart = cartRepository.save(cart);
+            pendingPaymentIntentService.cartChanged(userId);
             logger.info("Cart saved successfully: ID {}", savedCart.getId());
             return ResponseEntity.ok(savedCart);
         } catch (IllegalArgumentException e) {
@@ -95,12 +100,14 @@ public class CartController {
 
             if (quantity <= 0) {
                 cartRepository.delete(cart);
+                pendingPaymentIntentService.cartChanged(userId);
                 logger.info("Removed cart item with ID: {} due to quantity <= 0", itemId);
                 return ResponseEntity.ok(Map.of("success", true, "message", "Cart item removed"));
             }
 
             cart.setQuantity(quantity);
             Cart updatedCart = cartRepository.save(cart);
+            pendingPaymentIntentService.cartChanged(userId);
             return ResponseEntity.ok(updatedCart);
         } catch (IllegalArgumentException e) {
             logger.error("Validation error updating cart: {}", e.getMessage());
@@ -131,6 +138,7 @@ public class CartController {
             }
 
             cartRepository.delete(cart);
+            pendingPaymentIntentService.cartChanged(userId);
             logger.info("Removed cart item with ID: {}", itemId);
             return ResponseEntity.ok().build();
         } catch (IllegalArgumentException e) {
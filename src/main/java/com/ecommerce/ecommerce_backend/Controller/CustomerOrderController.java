@@ -1,29 +1,33 @@
 package com.ecommerce.ecommerce_backend.Controller;
 
 import com.ecommerce.ecommerce_backend.entity.*;
-import com.ecommerce.ecommerce_backend.repository.CartRepository;
 import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
 import com.ecommerce.ecommerce_backend.repository.ProductRepository;
 import com.ecommerce.ecommerce_backend.repository.UserRepository;
-import com.ecommerce.ecommerce_backend.Service.EmailService; // Add EmailService
-import com.ecommerce.ecommerce_backend.Service.PaymentService;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
+import com.ecommerce.ecommerce_backend.Service.CheckoutService;
+import com.ecommerce.ecommerce_backend.Service.IdentityService;
+import com.ecommerce.ecommerce_backend.Service.OrderService;
+import com.ecommerce.ecommerce_backend.Service.OrderStatusService;
+import com.ecommerce.ecommerce_backend.Service.PaymentNotCompletedException;
+import com.ecommerce.ecommerce_backend.Service.PendingPaymentIntentService;
+import com.ecommerce.ecommerce_backend.Service.PaymentGatewayException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -34,9 +38,6 @@ public class CustomerOrderController {
     @Autowired
     private CustomerOrderRepository customerOrderRepository;
 
-    @Autowired
-    private CartRepository cartRepository;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -44,10 +45,19 @@ public class CustomerOrderController {
     private ProductRepository productRepository;
 
     @Autowired
-    private PaymentService paymentService;
+    private PendingPaymentIntentService pendingPaymentIntentService;
 
     @Autowired
-    private EmailService emailService; // Inject EmailService
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private IdentityService identityService;
 
     @PostMapping("/create-payment-intent")
     public ResponseEntity<Map<String, Object>> createPaymentIntent(@Valid @RequestBody PaymentIntentRequest request) {
@@ -87,21 +97,33 @@ public class CustomerOrderController {
                 throw new IllegalArgumentException("Amount mismatch: expected $" + calculatedTotal + ", got $" + amountInDollars);
             }
 
-            long stripeAmount = Math.round(amount);
-            PaymentIntent paymentIntent = paymentService.createPaymentIntent(stripeAmount, currency);
-            logger.info("Payment intent created successfully: {}", paymentIntent.getId());
+            // The request amount is already in cents. Revisits with the same cart get the same intent back, and
+            // its stock stays held until checkout; an intent we cannot cover is cancelled straight away.
+            long amountInCents = Math.round(amount);
+            Map<Long, Integer> quantities = new HashMap<>();
+            Map<Long, Double> prices = new HashMap<>();
+            if (items != null) {
+                items.forEach(item -> {
+                    quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                    prices.put(item.getProductId(), item.getPrice());
+                });
+            }
+            PaymentIntentDetails paymentIntent = pendingPaymentIntentService.obtain(userId, quantities, prices, amountInCents, currency);
 
             Map<String, Object> response = new HashMap<>();
             response.put("clientSecret", paymentIntent.getClientSecret());
             response.put("paymentIntentId", paymentIntent.getId());
             return ResponseEntity.ok(response);
-        } catch (StripeException e) {
-            logger.error("Stripe error: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Stripe error: " + e.getMessage(), "details", e.getCode()));
+        } catch (PaymentGatewayException e) {
+            logger.error("Payment provider error: {}", e.getMessage(), e);
+            return ResponseEntity.status(e.isRetryable() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Payment error: " + e.getMessage(), "details", String.valueOf(e.getCode())));
         } catch (IllegalArgumentException e) {
             logger.warn("Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            logger.warn("Stock reservation failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Internal server error: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -110,105 +132,31 @@ public class CustomerOrderController {
     }
 
     @PostMapping("/checkout")
-    @Transactional
     public ResponseEntity<?> checkout(@Valid @RequestBody CheckoutRequest request) {
         try {
-            Long userId = request.getUserId();
-            String paymentIntentId = request.getPaymentIntentId();
-            ShippingAddress shippingAddress = request.getShippingAddress();
-            List<Map<String, Object>> cartItems = request.getCartItems();
-
-            logger.info("Processing checkout - UserId: {}, PaymentIntentId: {}, CartItems: {}", userId, paymentIntentId, cartItems);
-
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-
-            // Retry checking payment intent status
-            PaymentIntent paymentIntent = null;
-            int maxRetries = 3;
-            int retryDelayMs = 1000;
-            for (int i = 0; i < maxRetries; i++) {
-                paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-                if ("succeeded".equals(paymentIntent.getStatus())) {
-                    break;
-                }
-                logger.warn("Payment intent status not succeeded yet: {}. Retrying {}/{}", paymentIntent.getStatus(), i + 1, maxRetries);
-                Thread.sleep(retryDelayMs);
-            }
-
-            if (!"succeeded".equals(paymentIntent.getStatus())) {
-                logger.error("Payment not succeeded after retries: {}", paymentIntent.getStatus());
-                return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
-                        .body(Map.of("success", false, "message", "Payment failed: " + paymentIntent.getStatus()));
-            }
-
-            // Check if an order with the same paymentIntentId already exists
-            CustomerOrder existingOrder = customerOrderRepository.findByPaymentIntentId(paymentIntentId).orElse(null);
-            CustomerOrder order;
-
-            if (existingOrder != null) {
-                // Update existing order
-                order = existingOrder;
-                order.setShippingAddress(shippingAddress != null ? shippingAddress : new ShippingAddress());
-                order.setStatus("PAID");
-                order.setShipmentStatus("Packing");
-            } else {
-                // Create new order
-                order = new CustomerOrder();
-                order.setUser(user);
-                order.setOrderDate(LocalDateTime.now());
-                order.setStatus("PAID");
-                order.setShipmentStatus("Packing");
-                order.setShippingAddress(shippingAddress != null ? shippingAddress : new ShippingAddress());
-                order.setPaymentIntentId(paymentIntentId);
-            }
-
-            List<OrderItem> orderItems = cartItems.stream()
-                    .filter(item -> item.get("productId") != null && item.get("quantity") != null)
-                    .map(item -> {
-                        Long prodId = Long.valueOf(item.get("productId").toString());
-                        Integer qty = Integer.valueOf(item.get("quantity").toString());
-                        Double priceInCents = item.get("price") != null ? Double.valueOf(item.get("price").toString()) : 0.0;
-                        Double priceInDollars = priceInCents / 100.0;
-
-                        if (qty < 1) {
-                            throw new IllegalArgumentException("Quantity must be at least 1 for product ID " + prodId);
-                        }
-
-                        Product product = productRepository.findById(prodId)
-                                .orElseThrow(() -> new RuntimeException("Product not found with ID: " + prodId));
-                        if (Math.abs(product.getPrice() - priceInDollars) > 0.01) {
-                            throw new IllegalArgumentException("Price mismatch for product ID " + prodId + ": expected $" + product.getPrice() + ", got $" + priceInDollars);
-                        }
-
-                        return new OrderItem(order, product, product.getPrice(), qty);
-                    }).collect(Collectors.toList());
-
-            double total = orderItems.stream().mapToDouble(item -> item.getPrice() * item.getQuantity()).sum();
-            order.setTotal(total);
-            order.setItems(orderItems);
-
-            CustomerOrder savedOrder = customerOrderRepository.save(order);
-            cartRepository.deleteAll(cartRepository.findByUser(user));
-
-            // Send order confirmation email
-            try {
-                emailService.sendOrderConfirmationEmail(savedOrder);
-                logger.info("Order confirmation email sent for order ID: {}", savedOrder.getId());
-            } catch (Exception e) {
-                logger.error("Failed to send order confirmation email for order ID: {}. Error: {}", savedOrder.getId(), e.getMessage(), e);
-                // Log the error but don't fail the checkout process
-            }
-
-            logger.info("Order processed successfully: ID={}, UserID={}, Items={}", savedOrder.getId(), savedOrder.getUser().getId(), savedOrder.getItems().size());
+            CustomerOrder savedOrder = checkoutService.placeOrder(request, 3);
             return ResponseEntity.ok(Map.of("orderId", savedOrder.getId(), "success", true));
-        } catch (StripeException e) {
-            logger.error("Stripe error during checkout: {}", e.getMessage(), e);
+        } catch (PaymentNotCompletedException e) {
             return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
-                    .body(Map.of("success", false, "message", "Payment error: " + e.getMessage(), "details", e.getCode()));
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (PaymentGatewayException e) {
+            logger.error("Payment provider error during checkout: {}", e.getMessage(), e);
+            return ResponseEntity.status(e.isRetryable() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.PAYMENT_REQUIRED)
+                    .body(Map.of("success", false, "message", "Payment error: " + e.getMessage(), "details", String.valueOf(e.getCode())));
         } catch (IllegalArgumentException e) {
             logger.warn("Validation error during checkout: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IllegalStateException | ObjectOptimisticLockingFailureException e) {
+            logger.warn("Order state conflict during checkout: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("success", false, "message", "Checkout is busy, please retry shortly"));
+        } catch (TimeoutException e) {
+            logger.warn("Checkout timed out: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(Map.of("success", false, "message", "Checkout timed out, please retry"));
         } catch (Exception e) {
             logger.error("Checkout failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -241,6 +189,54 @@ public class CustomerOrderController {
         }
     }
 
+    @GetMapping("/history/{userId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getOrderHistory(@PathVariable Long userId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int size,
+                                             Authentication authentication) {
+        if (!isOwnerOrAdmin(userId, authentication)) {
+            logger.warn("Order history of user ID {} requested by {}", userId, authentication.getName());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "User not found with ID: " + userId));
+        }
+        try {
+            logger.info("Fetching order history for user ID: {}, cursor: {}, size: {}", userId, cursor, size);
+            OrderHistoryPage page = orderService.getOrderHistory(userId, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid order history request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Internal server error while fetching order history: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Internal server error", "details", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/history/{userId}/{orderId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getOrderDetail(@PathVariable Long userId, @PathVariable Long orderId,
+                                            Authentication authentication) {
+        if (!isOwnerOrAdmin(userId, authentication)) {
+            logger.warn("Order {} of user ID {} requested by {}", orderId, userId, authentication.getName());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Order not found with ID: " + orderId));
+        }
+        try {
+            logger.info("Fetching order detail for user ID: {}, order ID: {}", userId, orderId);
+            return ResponseEntity.ok(orderService.getOrderDetail(userId, orderId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Error fetching order detail: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Internal server error while fetching order detail: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Internal server error", "details", e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
@@ -264,21 +260,29 @@ public class CustomerOrderController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> cancelOrder(@PathVariable Long id) {
         try {
-            CustomerOrder order = customerOrderRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Order not found with ID: " + id));
-            logger.info("Order ID: {}, Shipment Status: {}", id, order.getShipmentStatus());
-            if (!"PAID".equalsIgnoreCase(order.getStatus())) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("success", false, "message", "Only orders with status 'PAID' can be cancelled."));
-            }
-            order.setStatus("Cancelled");
-            order.setShipmentStatus("Cancelled");
-            customerOrderRepository.save(order);
+            orderStatusService.cancel(id);
             return ResponseEntity.ok(Map.of("success", true, "message", "Order cancelled successfully"));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to cancel order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.warn("Concurrent update while cancelling order {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("success", false, "message", "Order was modified concurrently, please retry"));
         } catch (Exception e) {
             logger.error("Failed to cancel order: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("success", false, "message", "Failed to cancel order: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // Customers only see their own orders; someone else's reads as not found
+    private boolean isOwnerOrAdmin(Long userId, Authentication authentication) {
+        Identity identity = identityService.findByUsername(authentication.getName()).orElse(null);
+        return identity != null && (identity.isAdmin() || identity.getId().equals(userId));
+    }
+}
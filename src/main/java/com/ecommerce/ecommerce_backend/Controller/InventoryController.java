@@ -0,0 +1,65 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.Service.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/inventory")
+@PreAuthorize("hasRole('ADMIN')")
+public class InventoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryController.class);
+
+    private final InventoryService inventoryService;
+
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<?> getStock(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(inventoryService.getStockLevel(productId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    // Body: {"stock": 25}; a null stock turns tracking off for the product
+    @PutMapping("/{productId}")
+    public ResponseEntity<?> setStock(@PathVariable Long productId, @RequestBody Map<String, Integer> body) {
+        try {
+            inventoryService.setStock(productId, body.get("stock"));
+            return ResponseEntity.ok(inventoryService.getStockLevel(productId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to set stock for product {}: {}", productId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to set stock for product {}: {}", productId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to set stock", "details", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{productId}/restock")
+    public ResponseEntity<?> restock(@PathVariable Long productId, @RequestParam int quantity) {
+        try {
+            inventoryService.restock(productId, quantity);
+            return ResponseEntity.ok(inventoryService.getStockLevel(productId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to restock product {}: {}", productId, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to restock product {}: {}", productId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to restock", "details", e.getMessage()));
+        }
+    }
+}
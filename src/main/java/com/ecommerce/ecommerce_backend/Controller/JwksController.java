@@ -0,0 +1,28 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Public verification keys, so other services can check access tokens locally without calling back here
+@RestController
+public class JwksController {
+
+    private final JwtUtil jwtUtil;
+
+    public JwksController(JwtUtil jwtUtil) {
+        this.jwtUtil = jwtUtil;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<?> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(Map.of("keys", jwtUtil.getPublicJwks()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.ecommerce_backend.Controller;
+
+import com.ecommerce.ecommerce_backend.entity.CheckoutRequest;
+import com.ecommerce.ecommerce_backend.entity.Identity;
+import com.ecommerce.ecommerce_backend.entity.OrderIntake;
+import com.ecommerce.ecommerce_backend.Service.IdentityService;
+import com.ecommerce.ecommerce_backend.Service.OrderIntakeService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderIntakeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeController.class);
+
+    private final OrderIntakeService orderIntakeService;
+    private final IdentityService identityService;
+
+    public OrderIntakeController(OrderIntakeService orderIntakeService, IdentityService identityService) {
+        this.orderIntakeService = orderIntakeService;
+        this.identityService = identityService;
+    }
+
+    // The order is always placed for the caller; a userId in the body must match it
+    @PostMapping("/checkout/async")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> checkoutAsync(@Valid @RequestBody CheckoutRequest request, Authentication authentication) {
+        Identity identity = identityService.findByUsername(authentication.getName()).orElse(null);
+        if (identity == null || identity.isAdmin()
+                || (request.getUserId() != null && !request.getUserId().equals(identity.getId()))) {
+            logger.warn("Async checkout by {} rejected for user ID {}", authentication.getName(), request.getUserId());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", "Orders can only be placed for your own account"));
+        }
+        try {
+            OrderIntake intake = orderIntakeService.accept(request, identity.getId());
+            String statusUrl = "/api/orders/intake/" + intake.getTrackingId();
+            return ResponseEntity.accepted()
+                    .location(URI.create(statusUrl))
+                    .body(Map.of("success", true, "trackingId", intake.getTrackingId(),
+                            "status", intake.getStatus(), "statusUrl", statusUrl));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid async checkout: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to accept checkout: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to accept checkout", "details", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/intake/{trackingId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getIntakeStatus(@PathVariable String trackingId, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(orderIntakeService.toStatus(findVisibleIntake(trackingId, authentication)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/intake/{trackingId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter streamIntakeStatus(@PathVariable String trackingId, Authentication authentication) {
+        try {
+            return orderIntakeService.subscribe(findVisibleIntake(trackingId, authentication));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    // Customers see only their own intakes, admins see all; someone else's tracking ID reads as unknown
+    private OrderIntake findVisibleIntake(String trackingId, Authentication authentication) {
+        OrderIntake intake = orderIntakeService.getIntake(trackingId);
+        Identity identity = identityService.findByUsername(authentication.getName()).orElse(null);
+        boolean visible = identity != null
+                && (identity.isAdmin() || identity.getId().equals(intake.getUserId()));
+        if (!visible) {
+            throw new IllegalArgumentException("Unknown tracking ID: " + trackingId);
+        }
+        return intake;
+    }
+}
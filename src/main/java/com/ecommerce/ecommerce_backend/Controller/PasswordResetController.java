@@ -1,9 +1,11 @@
 package com.ecommerce.ecommerce_backend.Controller;
 
+import com.ecommerce.ecommerce_backend.Config.PasswordHashingBusyException;
 import com.ecommerce.ecommerce_backend.Service.PasswordResetService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -61,6 +63,8 @@ public class PasswordResetController {
             return ResponseEntity.ok("Password reset successfully");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PasswordHashingBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         } catch (Exception e) {
             logger.error("Failed to reset password for token: {}. Error: {}", token, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
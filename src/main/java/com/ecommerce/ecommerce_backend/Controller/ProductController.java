@@ -2,10 +2,13 @@ package com.ecommerce.ecommerce_backend.Controller;
 
 import com.ecommerce.ecommerce_backend.entity.Product;
 import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.Service.CoPurchaseService;
+import com.ecommerce.ecommerce_backend.Service.TrendingService;
 import okhttp3.*;
 import okhttp3.RequestBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,9 +33,14 @@ public class ProductController {
 
     private final ProductRepository productRepository;
     private final OkHttpClient client;
+    private final TrendingService trendingService;
+    private final CoPurchaseService coPurchaseService;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, TrendingService trendingService,
+                             CoPurchaseService coPurchaseService) {
         this.productRepository = productRepository;
+        this.trendingService = trendingService;
+        this.coPurchaseService = coPurchaseService;
         this.client = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .writeTimeout(10, TimeUnit.SECONDS)
@@ -132,9 +140,30 @@ public class ProductController {
         }
     }
 
+    @GetMapping("/trending")
+    public ResponseEntity<?> getTrending(@RequestParam(defaultValue = "day") String window,
+                                         @RequestParam(defaultValue = "sales") String metric,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(10, TimeUnit.SECONDS).cachePublic())
+                    .body(trendingService.getTrending(TrendingService.Metric.from(metric), TrendingService.Window.from(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<?> getRelatedProducts(@PathVariable Long id, @RequestParam(defaultValue = "6") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(coPurchaseService.getRelated(id, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Object>> getProductById(@PathVariable Long id) {
         Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> trendingService.recordView(p.getId()));
         return product.map(p -> ResponseEntity.ok(convertToResponse(p)))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
     }
@@ -0,0 +1,55 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.repository.AccountIdentityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Claims account_identity rows for accounts created before the table existed. Runs once all singletons exist,
+// which is before the web server accepts requests, so no registration can race a half-finished backfill.
+// Accounts that cannot be claimed (no username, or a username or email another account already holds) are
+// logged; until someone fixes them, their username and email are not protected against duplicates.
+@Service
+public class AccountIdentityBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountIdentityBackfill.class);
+    private static final int MAX_LOGGED_ROWS = 50;
+
+    private final AccountIdentityRepository accountIdentityRepository;
+
+    public AccountIdentityBackfill(AccountIdentityRepository accountIdentityRepository) {
+        this.accountIdentityRepository = accountIdentityRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            int users = accountIdentityRepository.backfillUsers();
+            int admins = accountIdentityRepository.backfillAdmins();
+            if (users + admins > 0) {
+                logger.info("Backfilled account identities for {} users and {} admins", users, admins);
+            }
+            logSkipped("user", accountIdentityRepository.findUnclaimedUsers());
+            logSkipped("admin", accountIdentityRepository.findUnclaimedAdmins());
+        } catch (DataAccessException e) {
+            // Another node registering an account mid-backfill can fail the insert; the next start tries again
+            logger.error("Account identity backfill failed, will retry on the next start: {}", e.getMessage(), e);
+        }
+    }
+
+    private void logSkipped(String kind, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (Object[] row : rows.subList(0, Math.min(rows.size(), MAX_LOGGED_ROWS))) {
+            String reason = row[1] == null ? "it has no username" : "its username or email is already claimed";
+            logger.warn("Skipped account identity for {} {} (username {}, email {}): {}", kind, row[0], row[1], row[2], reason);
+        }
+        logger.warn("{} {} accounts have no account identity and are not protected against duplicate sign-ups",
+                rows.size(), kind);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.AdminUserRow;
+import com.ecommerce.ecommerce_backend.entity.UserOrderRow;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class AdminUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminUserService.class);
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final ObjectMapper objectMapper;
+
+    public AdminUserService(UserRepository userRepository, CustomerOrderRepository customerOrderRepository,
+                            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.customerOrderRepository = customerOrderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Returns up to 'size' users with id > afterId; two queries per page regardless of order volume
+    public List<Map<String, Object>> getUserPage(Long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<AdminUserRow> users = userRepository.findAdminUserRows(afterId != null ? afterId : 0L, PageRequest.of(0, pageSize));
+        if (users.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> userIds = users.stream().map(AdminUserRow::getId).toList();
+        Map<Long, List<UserOrderRow>> ordersByUser = new HashMap<>();
+        for (UserOrderRow row : customerOrderRepository.findOrderRowsByUserIds(userIds)) {
+            ordersByUser.computeIfAbsent(row.getUserId(), id -> new ArrayList<>()).add(row);
+        }
+
+        List<Map<String, Object>> userDetails = new ArrayList<>(users.size());
+        for (AdminUserRow user : users) {
+            List<UserOrderRow> orders = ordersByUser.getOrDefault(user.getId(), List.of());
+            Map<String, Object> userData = new LinkedHashMap<>();
+            userData.put("userId", user.getId());
+            userData.put("name", user.getName() != null ? user.getName() : user.getUsername());
+            userData.put("order", orders.stream().map(order -> order.getOrderId() + ": " + order.getStatus()).toList());
+            userData.put("shippingAddress", orders.stream()
+                    .filter(UserOrderRow::hasShippingAddress)
+                    .map(UserOrderRow::formatShippingAddress)
+                    .findFirst()
+                    .orElse("N/A"));
+            userData.put("email", user.getEmail());
+            userDetails.add(userData);
+        }
+        logger.debug("Loaded admin user page after ID {} with {} users", afterId, userDetails.size());
+        return userDetails;
+    }
+
+    // Writes every user as one JSON array, walking the table in id order one batch at a time
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        long exported = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            Long afterId = 0L;
+            while (true) {
+                List<Map<String, Object>> page = getUserPage(afterId, EXPORT_BATCH_SIZE);
+                for (Map<String, Object> user : page) {
+                    generator.writeObject(user);
+                }
+                exported += page.size();
+                generator.flush();
+                if (page.size() < EXPORT_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) page.get(page.size() - 1).get("userId");
+            }
+            generator.writeEndArray();
+        }
+        logger.info("Exported {} users", exported);
+    }
+}
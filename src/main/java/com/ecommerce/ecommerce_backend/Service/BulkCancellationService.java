@@ -0,0 +1,134 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Mass cancellation, e.g. when a product is withdrawn. The request returns a tracking ID straight away; a background
+// thread walks the affected paid orders in id pages and cancels them one by one through OrderStatusService, which
+// queues each refund. Refunds then drain through the refund workers at their own pace.
+@Service
+public class BulkCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCancellationService.class);
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_TRACKED_RUNS = 100;
+
+    public static class Progress {
+        private final String trackingId;
+        private final Long productId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger cancelled = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private volatile boolean finished;
+        private volatile String error;
+
+        Progress(String trackingId, Long productId) {
+            this.trackingId = trackingId;
+            this.productId = productId;
+        }
+
+        public Map<String, Object> toStatus() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("trackingId", trackingId);
+            status.put("productId", productId);
+            status.put("startedAt", startedAt);
+            status.put("cancelled", cancelled.get());
+            status.put("skipped", skipped.get());
+            status.put("finished", finished);
+            status.put("error", error);
+            return status;
+        }
+    }
+
+    private final CustomerOrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final OrderStatusService orderStatusService;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-cancel");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Progress> runs = new ConcurrentHashMap<>();
+
+    public BulkCancellationService(CustomerOrderRepository orderRepository, ProductRepository productRepository,
+                                   OrderStatusService orderStatusService) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.orderStatusService = orderStatusService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    public Progress cancelByProduct(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product not found with ID: " + productId);
+        }
+        if (runs.size() >= MAX_TRACKED_RUNS) {
+            runs.values().removeIf(run -> run.finished);
+        }
+        Progress progress = new Progress(UUID.randomUUID().toString(), productId);
+        runs.put(progress.trackingId, progress);
+        runner.execute(() -> run(progress));
+        logger.info("Started bulk cancellation {} for product {}", progress.trackingId, productId);
+        return progress;
+    }
+
+    public Progress getProgress(String trackingId) {
+        Progress progress = runs.get(trackingId);
+        if (progress == null) {
+            throw new IllegalArgumentException("Unknown tracking ID: " + trackingId);
+        }
+        return progress;
+    }
+
+    private void run(Progress progress) {
+        long afterId = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> orderIds = orderRepository.findOrderIdsByProductAndStatus(progress.productId,
+                        OrderStatus.PAID.getLabel(), afterId, PageRequest.of(0, PAGE_SIZE));
+                for (Long orderId : orderIds) {
+                    afterId = orderId;
+                    try {
+                        orderStatusService.cancel(orderId);
+                        progress.cancelled.incrementAndGet();
+                    } catch (IllegalStateException | IllegalArgumentException | ObjectOptimisticLockingFailureException e) {
+                        // Shipped in the meantime, already cancelled, or changed concurrently
+                        progress.skipped.incrementAndGet();
+                        logger.debug("Bulk cancellation {} skipped order {}: {}", progress.trackingId, orderId, e.getMessage());
+                    }
+                }
+                if (orderIds.size() < PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            progress.error = e.getMessage();
+            logger.error("Bulk cancellation {} failed after order {}: {}", progress.trackingId, afterId, e.getMessage(), e);
+        } finally {
+            progress.finished = true;
+            logger.info("Bulk cancellation {} for product {} finished: {} cancelled, {} skipped",
+                    progress.trackingId, progress.productId, progress.cancelled.get(), progress.skipped.get());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.*;
+import com.ecommerce.ecommerce_backend.repository.CartRepository;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.util.FanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Turns a succeeded payment intent and the submitted cart into a PAID order. Shared by the synchronous
+// checkout endpoint and the order intake workers.
+@Service
+public class CheckoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutService.class);
+    private static final int PAYMENT_RETRY_DELAY_MS = 1000;
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final CartRepository cartRepository;
+    private final EmailService emailService;
+    private final OrderStatusService orderStatusService;
+    private final InventoryService inventoryService;
+    private final PaymentGateway paymentGateway;
+    private final PendingPaymentIntentService pendingPaymentIntentService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor checkoutIoExecutor;
+
+    @Value("${checkout.fanout.deadline-ms:8000}")
+    private long deadlineMs;
+
+    public CheckoutService(UserRepository userRepository, ProductRepository productRepository,
+                           CustomerOrderRepository customerOrderRepository, CartRepository cartRepository,
+                           EmailService emailService, OrderStatusService orderStatusService,
+                           InventoryService inventoryService, PaymentGateway paymentGateway,
+                           PendingPaymentIntentService pendingPaymentIntentService,
+                           TransactionTemplate transactionTemplate,
+                           @Qualifier("checkoutIoExecutor") Executor checkoutIoExecutor) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.customerOrderRepository = customerOrderRepository;
+        this.cartRepository = cartRepository;
+        this.emailService = emailService;
+        this.orderStatusService = orderStatusService;
+        this.inventoryService = inventoryService;
+        this.paymentGateway = paymentGateway;
+        this.pendingPaymentIntentService = pendingPaymentIntentService;
+        this.transactionTemplate = transactionTemplate;
+        this.checkoutIoExecutor = checkoutIoExecutor;
+    }
+
+    // paymentAttempts > 1 waits for a payment that has not settled yet, 1 checks once.
+    // The user, the payment intent and the products are fetched in parallel before any transaction is opened, so
+    // no connection is held while the payment provider answers; only the writes run transactionally. Placing the
+    // same payment intent twice (sync and async checkout, a retried intake) returns the one order it produced.
+    public CustomerOrder placeOrder(CheckoutRequest request, int paymentAttempts)
+            throws PaymentGatewayException, InterruptedException, TimeoutException {
+        Long userId = request.getUserId();
+        String paymentIntentId = request.getPaymentIntentId();
+        ShippingAddress shippingAddress = request.getShippingAddress();
+        List<Map<String, Object>> cartItems = request.getCartItems();
+
+        logger.info("Processing checkout - UserId: {}, PaymentIntentId: {}, CartItems: {}", userId, paymentIntentId, cartItems);
+
+        List<CartLine> lines = cartItems.stream()
+                .filter(item -> item.get("productId") != null && item.get("quantity") != null)
+                .map(CartLine::from)
+                .toList();
+        Set<Long> productIds = lines.stream().map(CartLine::productId).collect(Collectors.toSet());
+
+        FanOut fanOut = new FanOut(checkoutIoExecutor);
+        Future<User> userLookup;
+        Future<PaymentIntentDetails> paymentLookup;
+        Future<Map<Long, Product>> productLookup;
+        try {
+            userLookup = fanOut.submit(() -> userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId)));
+            paymentLookup = fanOut.submit(() -> retrievePayment(paymentIntentId, paymentAttempts));
+            productLookup = fanOut.submit(() -> productRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity())));
+            fanOut.submit(() -> {
+                inventoryService.extend(paymentIntentId);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            // Lookup pool saturated: give up now instead of waiting behind the other checkouts
+            fanOut.cancelAll();
+            logger.warn("Checkout lookups rejected for payment intent {}: pool saturated", paymentIntentId);
+            throw e;
+        }
+        awaitLookups(fanOut);
+
+        PaymentIntentDetails paymentIntent = getNow(paymentLookup);
+        if (!paymentIntent.isSucceeded()) {
+            logger.error("Payment not succeeded: {}", paymentIntent.getStatus());
+            throw new PaymentNotCompletedException(paymentIntent.getStatus());
+        }
+        User user = getNow(userLookup);
+        Map<Long, Product> products = getNow(productLookup);
+
+        CustomerOrder order;
+        try {
+            order = transactionTemplate.execute(status -> saveOrder(user, paymentIntentId, shippingAddress, lines, products));
+        } catch (DataIntegrityViolationException | ConcurrencyFailureException e) {
+            // A concurrent checkout of the same payment intent inserted the order first
+            order = customerOrderRepository.findByPaymentIntentId(paymentIntentId)
+                    .filter(existing -> OrderStatus.PAID.getLabel().equals(existing.getStatus()))
+                    .orElseThrow(() -> e);
+            logger.info("Payment intent {} was placed concurrently as order {}", paymentIntentId, order.getId());
+        }
+        pendingPaymentIntentService.orderPlaced(userId, paymentIntentId);
+        return order;
+    }
+
+    private CustomerOrder saveOrder(User user, String paymentIntentId, ShippingAddress shippingAddress,
+                                    List<CartLine> lines, Map<Long, Product> products) {
+        CustomerOrder existingOrder = customerOrderRepository.findByPaymentIntentIdForUpdate(paymentIntentId).orElse(null);
+        if (existingOrder != null && OrderStatus.PAID.getLabel().equals(existingOrder.getStatus())) {
+            logger.info("Payment intent {} already placed as order {}", paymentIntentId, existingOrder.getId());
+            return existingOrder;
+        }
+        CustomerOrder order;
+        OrderStatus previousStatus;
+
+        if (existingOrder != null) {
+            // Update existing order
+            order = existingOrder;
+            order.setShippingAddress(shippingAddress != null ? shippingAddress : new ShippingAddress());
+            previousStatus = orderStatusService.markPaid(order);
+        } else {
+            // Create new order
+            order = new CustomerOrder();
+            order.setUser(user);
+            order.setOrderDate(LocalDateTime.now());
+            previousStatus = orderStatusService.markPaid(order);
+            order.setShippingAddress(shippingAddress != null ? shippingAddress : new ShippingAddress());
+            order.setPaymentIntentId(paymentIntentId);
+        }
+
+        List<OrderItem> orderItems = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            Product product = products.get(line.productId());
+            if (product == null) {
+                throw new RuntimeException("Product not found with ID: " + line.productId());
+            }
+            if (Math.abs(product.getPrice() - line.priceInDollars()) > 0.01) {
+                throw new IllegalArgumentException("Price mismatch for product ID " + line.productId() + ": expected $" + product.getPrice() + ", got $" + line.priceInDollars());
+            }
+            orderItems.add(new OrderItem(order, product, product.getPrice(), line.quantity()));
+        }
+
+        double total = orderItems.stream().mapToDouble(item -> item.getPrice() * item.getQuantity()).sum();
+        order.setTotal(total);
+        order.setItems(orderItems);
+
+        CustomerOrder savedOrder = customerOrderRepository.save(order);
+        orderStatusService.publishStatusChange(savedOrder, previousStatus);
+        Map<Long, Integer> quantities = new HashMap<>();
+        orderItems.forEach(item -> quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        inventoryService.commit(paymentIntentId, quantities);
+        cartRepository.deleteAll(cartRepository.findByUser(user));
+
+        // Send order confirmation email
+        try {
+            emailService.sendOrderConfirmationEmail(savedOrder);
+            logger.info("Order confirmation email sent for order ID: {}", savedOrder.getId());
+        } catch (Exception e) {
+            logger.error("Failed to send order confirmation email for order ID: {}. Error: {}", savedOrder.getId(), e.getMessage(), e);
+            // Log the error but don't fail the checkout process
+        }
+
+        logger.info("Order processed successfully: ID={}, UserID={}, Items={}", savedOrder.getId(), savedOrder.getUser().getId(), savedOrder.getItems().size());
+        return savedOrder;
+    }
+
+    private PaymentIntentDetails retrievePayment(String paymentIntentId, int attempts) throws PaymentGatewayException, InterruptedException {
+        PaymentIntentDetails paymentIntent = null;
+        for (int i = 0; i < attempts; i++) {
+            paymentIntent = paymentGateway.retrievePaymentIntent(paymentIntentId);
+            if (paymentIntent.isSucceeded() || i == attempts - 1) {
+                break;
+            }
+            logger.warn("Payment intent status not succeeded yet: {}. Retrying {}/{}", paymentIntent.getStatus(), i + 1, attempts);
+            Thread.sleep(PAYMENT_RETRY_DELAY_MS);
+        }
+        return paymentIntent;
+    }
+
+    // Rethrows the first failed lookup as the exception it originally threw
+    private void awaitLookups(FanOut fanOut) throws PaymentGatewayException, InterruptedException, TimeoutException {
+        try {
+            fanOut.await(deadlineMs);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PaymentGatewayException gatewayException) {
+                throw gatewayException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Checkout lookup failed: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            logger.warn("Checkout lookups did not finish within {} ms", deadlineMs);
+            throw e;
+        }
+    }
+
+    private <T> T getNow(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class CartLine {
+        private final Long productId;
+        private final int quantity;
+        private final double priceInDollars;
+
+        CartLine(Long productId, int quantity, double priceInDollars) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.priceInDollars = priceInDollars;
+        }
+
+        Long productId() {
+            return productId;
+        }
+
+        int quantity() {
+            return quantity;
+        }
+
+        double priceInDollars() {
+            return priceInDollars;
+        }
+
+        static CartLine from(Map<String, Object> item) {
+            Long prodId = Long.valueOf(item.get("productId").toString());
+            Integer qty = Integer.valueOf(item.get("quantity").toString());
+            Double priceInCents = item.get("price") != null ? Double.valueOf(item.get("price").toString()) : 0.0;
+            if (qty < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1 for product ID " + prodId);
+            }
+            return new CartLine(prodId, qty, priceInCents / 100.0);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.entity.RelatedProduct;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.util.SpaceSavingSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// "Frequently bought together". Every product keeps a bounded Space-Saving sketch of the products it was ordered
+// with, which makes the co-occurrence matrix sparse and capped at products x neighbours. Paid orders update it
+// as they happen; a fork-join job rebuilds it from order history. Requests only read the published lists.
+@Service
+public class CoPurchaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoPurchaseService.class);
+    private static final int MAX_PRODUCTS_PER_ORDER = 50;
+    private static final long REBUILD_CHUNK_ORDERS = 5000;
+
+    private final CustomerOrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ForkJoinPool rebuildPool;
+    private final int neighbours;
+    private final int topN;
+
+    private volatile Map<Long, SpaceSavingSketch<Long>> matrix = new ConcurrentHashMap<>();
+    private final Map<Long, List<RelatedProduct>> published = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public CoPurchaseService(CustomerOrderRepository orderRepository, ProductRepository productRepository,
+                             @Value("${recommendations.neighbours-per-product:50}") int neighbours,
+                             @Value("${recommendations.top-n:10}") int topN,
+                             @Value("${recommendations.rebuild.parallelism:4}") int parallelism) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.neighbours = neighbours;
+        this.topN = topN;
+        this.rebuildPool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildPool.shutdownNow();
+    }
+
+    public List<RelatedProduct> getRelated(Long productId, int limit) {
+        List<RelatedProduct> related = published.getOrDefault(productId, List.of());
+        return related.subList(0, Math.max(0, Math.min(limit, related.size())));
+    }
+
+    @Async("analyticsExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!event.becamePaid()) {
+            return;
+        }
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (OrderStatusChangedEvent.Line line : event.getLines()) {
+            if (line.getProductId() != null && productIds.size() < MAX_PRODUCTS_PER_ORDER) {
+                productIds.add(line.getProductId());
+            }
+        }
+        recordBasket(matrix, productIds);
+        dirty.addAll(productIds);
+    }
+
+    private void recordBasket(Map<Long, SpaceSavingSketch<Long>> target, Set<Long> productIds) {
+        if (productIds.size() < 2) {
+            return;
+        }
+        for (Long productId : productIds) {
+            SpaceSavingSketch<Long> sketch = target.computeIfAbsent(productId, id -> new SpaceSavingSketch<>(neighbours));
+            synchronized (sketch) {
+                for (Long other : productIds) {
+                    if (!other.equals(productId)) {
+                        sketch.offer(other);
+                    }
+                }
+            }
+        }
+    }
+
+    // Turns the sketches of recently changed products into ready-to-serve lists
+    @Scheduled(fixedDelayString = "${recommendations.refresh-ms:30000}")
+    public void publishChanges() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Set<Long> changed = new HashSet<>(dirty);
+        dirty.removeAll(changed);
+        publish(matrix, changed);
+    }
+
+    private void publish(Map<Long, SpaceSavingSketch<Long>> source, Set<Long> productIds) {
+        Map<Long, List<SpaceSavingSketch.Entry<Long>>> tops = new HashMap<>();
+        Set<Long> referenced = new HashSet<>();
+        for (Long productId : productIds) {
+            SpaceSavingSketch<Long> sketch = source.get(productId);
+            if (sketch == null) {
+                continue;
+            }
+            List<SpaceSavingSketch.Entry<Long>> top;
+            synchronized (sketch) {
+                top = sketch.top(topN);
+            }
+            tops.put(productId, top);
+            top.forEach(entry -> referenced.add(entry.getKey()));
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        if (!referenced.isEmpty()) {
+            productRepository.findAllById(referenced).forEach(product -> products.put(product.getId(), product));
+        }
+        tops.forEach((productId, top) -> {
+            List<RelatedProduct> related = new ArrayList<>(top.size());
+            for (SpaceSavingSketch.Entry<Long> entry : top) {
+                Product product = products.get(entry.getKey());
+                if (product != null) {
+                    related.add(new RelatedProduct(product, entry.getCount()));
+                }
+            }
+            published.put(productId, List.copyOf(related));
+        });
+        logger.debug("Published related products for {} products", tops.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuildInBackground();
+    }
+
+    // Only hands the job to the rebuild pool; the shared scheduler thread must not wait for a full recount
+    @Scheduled(cron = "${recommendations.rebuild.cron:0 0 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildInBackground();
+    }
+
+    public void rebuildInBackground() {
+        rebuildPool.execute(this::rebuild);
+    }
+
+    // Recounts co-purchases over all paid orders in parallel id ranges and swaps in the result.
+    // Orders paid between reading their id range and the swap can be missed; the next rebuild picks them up.
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.info("Co-purchase rebuild already running");
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Long maxId = orderRepository.findMaxId();
+            if (maxId == null) {
+                return true;
+            }
+            Map<Long, SpaceSavingSketch<Long>> rebuilt = new ConcurrentHashMap<>(rebuildPool.invoke(new CountTask(0L, maxId)));
+            matrix = rebuilt;
+            publish(rebuilt, rebuilt.keySet());
+            published.keySet().retainAll(rebuilt.keySet());
+            logger.info("Rebuilt co-purchase matrix for {} products from orders up to ID {} in {} ms",
+                    rebuilt.size(), maxId, System.currentTimeMillis() - started);
+            return true;
+        } catch (Exception e) {
+            logger.error("Co-purchase rebuild failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Each id range is counted straight into bounded sketches, so no task holds more than products x neighbours
+    private class CountTask extends RecursiveTask<Map<Long, SpaceSavingSketch<Long>>> {
+        private final long fromId;
+        private final long toId;
+
+        CountTask(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Map<Long, SpaceSavingSketch<Long>> compute() {
+            if (toId - fromId <= REBUILD_CHUNK_ORDERS) {
+                return countRange();
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            CountTask left = new CountTask(fromId, middle);
+            CountTask right = new CountTask(middle, toId);
+            left.fork();
+            Map<Long, SpaceSavingSketch<Long>> result = right.compute();
+            left.join().forEach((productId, sketch) -> result.merge(productId, sketch, (mine, theirs) -> {
+                mine.merge(theirs);
+                return mine;
+            }));
+            return result;
+        }
+
+        private Map<Long, SpaceSavingSketch<Long>> countRange() {
+            Map<Long, SpaceSavingSketch<Long>> counts = new HashMap<>();
+            List<Object[]> pairs = orderRepository.findOrderProductPairs(fromId, toId, OrderStatus.PAID.getLabel());
+            Long currentOrder = null;
+            Set<Long> basket = new LinkedHashSet<>();
+            for (Object[] pair : pairs) {
+                Long orderId = (Long) pair[0];
+                if (!orderId.equals(currentOrder)) {
+                    recordBasket(counts, basket);
+                    basket.clear();
+                    currentOrder = orderId;
+                }
+                if (basket.size() < MAX_PRODUCTS_PER_ORDER) {
+                    basket.add((Long) pair[1]);
+                }
+            }
+            recordBasket(counts, basket);
+            return counts;
+        }
+    }
+}
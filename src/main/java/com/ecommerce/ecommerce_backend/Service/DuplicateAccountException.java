@@ -0,0 +1,20 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+// Registration hit the username or email unique constraint of account_identity
+public class DuplicateAccountException extends RuntimeException {
+
+    public enum Field {
+        USERNAME, EMAIL
+    }
+
+    private final Field field;
+
+    public DuplicateAccountException(Field field, Throwable cause) {
+        super(field == Field.USERNAME ? "Username already exists" : "Email already exists", cause);
+        this.field = field;
+    }
+
+    public Field getField() {
+        return field;
+    }
+}
@@ -0,0 +1,191 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.PaymentIntentDetails;
+import com.ecommerce.ecommerce_backend.entity.RefundDetails;
+import com.ecommerce.ecommerce_backend.util.OperationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// In-process stand-in for Stripe, for local runs and load tests (payment.gateway=fake). Intents live in memory,
+// each call sleeps for the configured latency, and a configurable share of calls fails like a provider outage.
+// With auto-succeed on, retrieving an intent reports it as paid so checkout can run end to end.
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "fake")
+public class FakePaymentGateway implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakePaymentGateway.class);
+
+    @Value("${payment.fake.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${payment.fake.latency-jitter-ms:25}")
+    private long latencyJitterMs;
+
+    @Value("${payment.fake.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${payment.fake.auto-succeed:true}")
+    private boolean autoSucceed;
+
+    private final Map<String, PaymentIntentDetails> intents = new ConcurrentHashMap<>();
+    private final Map<String, RefundDetails> refunds = new ConcurrentHashMap<>();
+    private final Map<String, String> idempotencyKeys = new ConcurrentHashMap<>();
+    private final OperationMetrics metrics = new OperationMetrics();
+
+    @PostConstruct
+    public void init() {
+        logger.warn("Using the fake payment gateway (latency {} ms + up to {} ms jitter, failure rate {}) - no real payments are taken",
+                latencyMs, latencyJitterMs, failureRate);
+    }
+
+    @Override
+    public PaymentIntentDetails createPaymentIntent(long amount, String currency, String idempotencyKey) throws PaymentGatewayException {
+        long started = simulate("create");
+        if (idempotencyKey != null) {
+            String existingId = idempotencyKeys.get(idempotencyKey);
+            if (existingId != null) {
+                metrics.record("create", System.currentTimeMillis() - started, true);
+                return intents.get(existingId);
+            }
+        }
+        String id = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+        PaymentIntentDetails intent = new PaymentIntentDetails(id, "requires_payment_method", id + "_secret_fake", amount, currency);
+        intents.put(id, intent);
+        if (idempotencyKey != null) {
+            idempotencyKeys.put(idempotencyKey, id);
+        }
+        metrics.record("create", System.currentTimeMillis() - started, true);
+        return intent;
+    }
+
+    @Override
+    public PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) throws PaymentGatewayException {
+        long started = simulate("retrieve");
+        PaymentIntentDetails intent = find(paymentIntentId, "retrieve", started);
+        if (autoSucceed && "requires_payment_method".equals(intent.getStatus())) {
+            intent = withStatus(intent, "succeeded");
+            intents.put(paymentIntentId, intent);
+        }
+        metrics.record("retrieve", System.currentTimeMillis() - started, true);
+        return intent;
+    }
+
+    @Override
+    public PaymentIntentDetails updatePaymentIntent(String paymentIntentId, long amount, String currency) throws PaymentGatewayException {
+        long started = simulate("update");
+        PaymentIntentDetails intent = find(paymentIntentId, "update", started);
+        if (!"requires_payment_method".equals(intent.getStatus())) {
+            metrics.record("update", System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("Cannot update a payment intent in status " + intent.getStatus(),
+                    "payment_intent_unexpected_state", false);
+        }
+        PaymentIntentDetails updated = new PaymentIntentDetails(intent.getId(), intent.getStatus(), intent.getClientSecret(), amount, currency);
+        intents.put(paymentIntentId, updated);
+        metrics.record("update", System.currentTimeMillis() - started, true);
+        return updated;
+    }
+
+    @Override
+    public void cancelPaymentIntent(String paymentIntentId) throws PaymentGatewayException {
+        long started = simulate("cancel");
+        PaymentIntentDetails intent = find(paymentIntentId, "cancel", started);
+        if ("succeeded".equals(intent.getStatus())) {
+            metrics.record("cancel", System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("Cannot cancel a succeeded payment intent", "payment_intent_unexpected_state", false);
+        }
+        intents.put(paymentIntentId, withStatus(intent, "canceled"));
+        metrics.record("cancel", System.currentTimeMillis() - started, true);
+    }
+
+    // Refunds start out pending and read back as succeeded, like card refunds that settle later
+    @Override
+    public RefundDetails refund(String paymentIntentId, long amount, String idempotencyKey) throws PaymentGatewayException {
+        long started = simulate("refund");
+        if (idempotencyKey != null) {
+            String existingId = idempotencyKeys.get(idempotencyKey);
+            if (existingId != null) {
+                metrics.record("refund", System.currentTimeMillis() - started, true);
+                return refunds.get(existingId);
+            }
+        }
+        PaymentIntentDetails intent = find(paymentIntentId, "refund", started);
+        if (!intent.isSucceeded()) {
+            metrics.record("refund", System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("Payment intent " + paymentIntentId + " has not been paid", "charge_not_refundable", false);
+        }
+        String id = "re_fake_" + UUID.randomUUID().toString().replace("-", "");
+        RefundDetails refund = new RefundDetails(id, "pending", amount);
+        refunds.put(id, refund);
+        if (idempotencyKey != null) {
+            idempotencyKeys.put(idempotencyKey, id);
+        }
+        metrics.record("refund", System.currentTimeMillis() - started, true);
+        return refund;
+    }
+
+    @Override
+    public RefundDetails retrieveRefund(String refundId) throws PaymentGatewayException {
+        long started = simulate("retrieveRefund");
+        RefundDetails refund = refundId != null ? refunds.get(refundId) : null;
+        if (refund == null) {
+            metrics.record("retrieveRefund", System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("No such refund: " + refundId, "resource_missing", false);
+        }
+        if ("pending".equals(refund.getStatus())) {
+            refund = new RefundDetails(refund.getId(), "succeeded", refund.getAmount());
+            refunds.put(refundId, refund);
+        }
+        metrics.record("retrieveRefund", System.currentTimeMillis() - started, true);
+        return refund;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("provider", "fake");
+        snapshot.put("intents", intents.size());
+        snapshot.put("operations", metrics.snapshot());
+        return snapshot;
+    }
+
+    private PaymentIntentDetails find(String paymentIntentId, String operation, long started) throws PaymentGatewayException {
+        PaymentIntentDetails intent = paymentIntentId != null ? intents.get(paymentIntentId) : null;
+        if (intent == null) {
+            metrics.record(operation, System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("No such payment_intent: " + paymentIntentId, "resource_missing", false);
+        }
+        return intent;
+    }
+
+    // Sleeps for the configured latency and fails a share of calls; returns the start time for the metrics
+    private long simulate(String operation) throws PaymentGatewayException {
+        long started = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while calling the payment provider", "interrupted", true, e);
+        }
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            metrics.record(operation, System.currentTimeMillis() - started, false);
+            throw new PaymentGatewayException("Simulated payment provider failure", "api_error", true);
+        }
+        return started;
+    }
+
+    private PaymentIntentDetails withStatus(PaymentIntentDetails intent, String status) {
+        return new PaymentIntentDetails(intent.getId(), status, intent.getClientSecret(), intent.getAmount(), intent.getCurrency());
+    }
+}
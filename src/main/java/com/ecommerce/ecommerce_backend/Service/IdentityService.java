@@ -0,0 +1,104 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.Identity;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.util.ExpiringLruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Username -> customer or admin, resolved with a single UNION query and kept in a bounded cache shared by login,
+// UserDetailsService and the token endpoints. Entries expire after a short TTL so changes made on another node
+// show up without coordination; changes made here invalidate the entry right away.
+@Service
+public class IdentityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentityService.class);
+
+    private final UserRepository userRepository;
+    private final ExpiringLruCache<String, Identity> identities;
+    private final long ttlMillis;
+
+    public IdentityService(UserRepository userRepository,
+                           @Value("${auth.identity-cache.max-entries:10000}") int maxEntries,
+                           @Value("${auth.identity-cache.ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.identities = new ExpiringLruCache<>(maxEntries, 16);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Optional<Identity> findByUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return Optional.empty();
+        }
+        Identity cached = identities.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Identity identity = load(username);
+        if (identity != null) {
+            identities.put(username, identity, System.currentTimeMillis() + ttlMillis);
+        }
+        return Optional.ofNullable(identity);
+    }
+
+    public void invalidate(String username) {
+        identities.remove(username);
+    }
+
+    // For changes made inside a transaction: evicting before commit would let a concurrent lookup cache the old row again
+    public void invalidateAfterCommit(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(username);
+            }
+        });
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", identities.size());
+        stats.put("hits", identities.getHits());
+        stats.put("misses", identities.getMisses());
+        stats.put("hitRatio", identities.getHitRatio());
+        stats.put("evictions", identities.getEvictions());
+        return stats;
+    }
+
+    private Identity load(String username) {
+        List<Object[]> rows = userRepository.findIdentityRows(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        // A username present in both tables resolves to the customer, as it always has
+        String kind = rows.stream().anyMatch(row -> "USER".equals(row[0])) ? "USER" : "ADMIN";
+        Object[] first = null;
+        Set<String> roles = new HashSet<>();
+        for (Object[] row : rows) {
+            if (kind.equals(row[0])) {
+                first = first != null ? first : row;
+                if (row[6] != null) {
+                    roles.add((String) row[6]);
+                }
+            }
+        }
+        logger.debug("Resolved {} {} with roles {}", kind, username, roles);
+        return new Identity(Identity.Kind.valueOf(kind), ((Number) first[1]).longValue(), (String) first[2],
+                (String) first[3], (String) first[4], (String) first[5], kind.equals("USER") ? Set.of("USER") : roles);
+    }
+}
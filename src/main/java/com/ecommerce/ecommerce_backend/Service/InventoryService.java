@@ -0,0 +1,476 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.entity.StockReservation;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Stock reservations without a hot row lock. Available units per product live in an AtomicInteger and are taken
+// with compare-and-set; MySQL only sees reservation rows and batched "stock = stock - n" updates. A sale is durable
+// as soon as its COMMITTED reservation row is; the flush applies those rows to product.stock and marks them in the
+// same transaction, so a crash neither loses nor repeats a sale. Invariant:
+//   available = product.stock - COMMITTED units not yet applied - units held by HELD reservations
+// Products with a null stock are not tracked and can always be reserved.
+@Service
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final int EXPIRY_BATCH_SIZE = 500;
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Set<Long> untracked = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> suspectedDrift = new ConcurrentHashMap<>();
+    private final Object[] loadLocks = new Object[LOCK_STRIPES];
+
+    @Value("${inventory.reservation.ttl-minutes:15}")
+    private long reservationTtlMinutes;
+
+    public InventoryService(ProductRepository productRepository, StockReservationRepository reservationRepository,
+                            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.reservationRepository = reservationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            loadLocks[i] = new Object();
+        }
+    }
+
+    // Holds the given quantities under 'key' (the payment intent ID). All or nothing: throws IllegalStateException
+    // if any tracked product is short. Calling it again for a key that already has a reservation is a no-op.
+    public void reserve(String key, Map<Long, Integer> quantities) {
+        if (!reservationRepository.findByReservationKey(key).isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> tracked = trackedOnly(quantities);
+        if (tracked.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : tracked.entrySet()) {
+                if (!tryTake(entry.getKey(), entry.getValue())) {
+                    throw new IllegalStateException("Insufficient stock for product ID " + entry.getKey());
+                }
+                taken.put(entry.getKey(), entry.getValue());
+            }
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(reservationTtlMinutes);
+            List<StockReservation> reservations = new ArrayList<>(tracked.size());
+            tracked.forEach((productId, quantity) -> reservations.add(new StockReservation(key, productId, quantity, expiresAt)));
+            reservationRepository.saveAll(reservations);
+            logger.debug("Reserved {} for {} until {}", tracked, key, expiresAt);
+        } catch (RuntimeException e) {
+            taken.forEach(this::giveBack);
+            throw e;
+        }
+    }
+
+    // Turns the hold into a sale. If the hold already expired the payment has still gone through, so the units
+    // are taken anyway and an oversell is logged rather than refused.
+    public void commit(String key, Map<Long, Integer> quantities) {
+        List<StockReservation> reservations = reservationRepository.findByReservationKey(key);
+        if (reservations.stream().anyMatch(r -> r.getStatus() == StockReservation.Status.COMMITTED)) {
+            return;
+        }
+
+        List<StockReservation> held = reservations.stream()
+                .filter(r -> r.getStatus() == StockReservation.Status.HELD)
+                .toList();
+        if (!held.isEmpty()) {
+            Integer updated = transactionTemplate.execute(status ->
+                    reservationRepository.updateStatus(key, StockReservation.Status.HELD, StockReservation.Status.COMMITTED));
+            if (updated != null && updated > 0) {
+                // The units already left the counter when they were reserved
+                return;
+            }
+        }
+
+        Map<Long, Integer> tracked = trackedOnly(quantities);
+        if (tracked.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            reservationRepository.updateStatus(key, StockReservation.Status.EXPIRED, StockReservation.Status.COMMITTED);
+            reservationRepository.updateStatus(key, StockReservation.Status.RELEASED, StockReservation.Status.COMMITTED);
+            if (reservations.isEmpty()) {
+                List<StockReservation> committed = new ArrayList<>(tracked.size());
+                tracked.forEach((productId, quantity) -> {
+                    StockReservation reservation = new StockReservation(key, productId, quantity, LocalDateTime.now());
+                    reservation.setStatus(StockReservation.Status.COMMITTED);
+                    committed.add(reservation);
+                });
+                reservationRepository.saveAll(committed);
+            }
+        });
+        afterCommit(() -> tracked.forEach((productId, quantity) -> {
+            AtomicInteger counter = available.get(productId);
+            if (counter == null) {
+                // Reloaded on next use, from rows that already include this sale
+                return;
+            }
+            int remaining = counter.addAndGet(-quantity);
+            if (remaining < 0) {
+                logger.warn("Product {} oversold by {} units after an expired reservation ({})", productId, -remaining, key);
+            }
+        }));
+    }
+
+    // Makes the hold under 'key' match 'quantities' for a payment intent that is being reused. A live hold with the
+    // same quantities is just extended; otherwise the old hold is returned and a new one taken.
+    public void renew(String key, Map<Long, Integer> quantities) {
+        List<StockReservation> reservations = reservationRepository.findByReservationKey(key);
+        if (reservations.stream().anyMatch(r -> r.getStatus() == StockReservation.Status.COMMITTED)) {
+            throw new IllegalStateException("Payment intent " + key + " has already been used for an order");
+        }
+        Map<Long, Integer> held = new HashMap<>();
+        reservations.stream()
+                .filter(r -> r.getStatus() == StockReservation.Status.HELD)
+                .forEach(r -> held.put(r.getProductId(), r.getQuantity()));
+        if (!held.isEmpty() && held.equals(trackedOnly(quantities))) {
+            extend(key);
+            return;
+        }
+        release(key);
+        transactionTemplate.executeWithoutResult(status -> reservationRepository.deleteByKeyAndStatusIn(key,
+                List.of(StockReservation.Status.RELEASED, StockReservation.Status.EXPIRED)));
+        reserve(key, quantities);
+    }
+
+    public void release(String key) {
+        release(key, StockReservation.Status.RELEASED);
+    }
+
+    // Keeps a hold alive while a slow checkout is still in progress
+    public void extend(String key) {
+        transactionTemplate.executeWithoutResult(status -> reservationRepository.extend(key, StockReservation.Status.HELD,
+                LocalDateTime.now().plusMinutes(reservationTtlMinutes)));
+    }
+
+    private void release(String key, StockReservation.Status target) {
+        List<StockReservation> held = reservationRepository.findByReservationKeyAndStatus(key, StockReservation.Status.HELD);
+        if (held.isEmpty()) {
+            return;
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                reservationRepository.updateStatus(key, StockReservation.Status.HELD, target));
+        if (updated != null && updated > 0) {
+            for (StockReservation reservation : held) {
+                giveBack(reservation.getProductId(), reservation.getQuantity());
+            }
+            logger.debug("Reservation {} {}", key, target);
+        }
+    }
+
+    // Cancelled orders put their units back on the shelf. Written straight to product.stock: if the sale has not
+    // been flushed yet, the later flush still subtracts it and the two cancel out.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!event.leftPaid()) {
+            return;
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderStatusChangedEvent.Line line : event.getLines()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        Map<Long, Integer> tracked = trackedOnly(quantities);
+        if (tracked.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(tracked.size());
+        tracked.forEach((productId, quantity) -> batch.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate("UPDATE product SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL", batch);
+        tracked.forEach(this::giveBack);
+    }
+
+    public Map<String, Object> getStockLevel(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + productId));
+        Map<String, Object> level = new LinkedHashMap<>();
+        level.put("productId", productId);
+        level.put("tracked", product.getStock() != null);
+        level.put("stock", product.getStock());
+        if (product.getStock() != null) {
+            ensureLoaded(productId);
+            level.put("unflushedSold", sumByProduct(reservationRepository.sumUnappliedByProduct(
+                    StockReservation.Status.COMMITTED, List.of(productId))).getOrDefault(productId, 0L));
+            AtomicInteger counter = available.get(productId);
+            level.put("available", counter != null ? counter.get() : null);
+        }
+        return level;
+    }
+
+    // Sets the on-hand count (null stops tracking). The counter is rebuilt from the database afterwards.
+    public void setStock(Long productId, Integer stock) {
+        if (stock != null && stock < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative");
+        }
+        synchronized (lockFor(productId)) {
+            Integer updated = transactionTemplate.execute(status -> {
+                int rows = jdbcTemplate.update("UPDATE product SET stock = ? WHERE id = ?", stock, productId);
+                if (rows > 0) {
+                    reservationRepository.markAppliedForProduct(productId, StockReservation.Status.COMMITTED);
+                }
+                return rows;
+            });
+            if (updated == null || updated == 0) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            available.remove(productId);
+            untracked.remove(productId);
+        }
+        logger.info("Stock for product {} set to {}", productId, stock);
+    }
+
+    public void restock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int updated = jdbcTemplate.update("UPDATE product SET stock = stock + ? WHERE id = ? AND stock IS NOT NULL", quantity, productId);
+        if (updated == 0) {
+            throw new IllegalArgumentException("Product " + productId + " does not exist or does not track stock");
+        }
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+        }
+        logger.info("Restocked product {} with {} units", productId, quantity);
+    }
+
+    // Applies committed sales to product.stock: one batched statement per page of reservation rows, in the same
+    // transaction that marks those rows applied, so a failed or interrupted flush leaves everything for the next one
+    @Scheduled(fixedDelayString = "${inventory.flush-ms:1000}")
+    public void flush() {
+        try {
+            Integer applied;
+            do {
+                applied = transactionTemplate.execute(status -> flushPage());
+            } while (applied != null && applied == FLUSH_BATCH_SIZE);
+        } catch (Exception e) {
+            logger.error("Failed to flush stock deltas, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private int flushPage() {
+        List<Object[]> rows = reservationRepository.lockUnapplied(FLUSH_BATCH_SIZE);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+            deltas.merge(((Number) row[1]).longValue(), ((Number) row[2]).longValue(), Long::sum);
+        }
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> batch.add(new Object[]{delta, productId}));
+        jdbcTemplate.batchUpdate("UPDATE product SET stock = stock - ? WHERE id = ? AND stock IS NOT NULL", batch);
+        reservationRepository.markApplied(ids);
+        logger.debug("Flushed stock deltas for {} products", deltas.size());
+        return rows.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.expiry-sweep-ms:30000}")
+    public void expireReservations() {
+        try {
+            List<String> keys = reservationRepository.findExpiredKeys(StockReservation.Status.HELD, LocalDateTime.now(),
+                    PageRequest.of(0, EXPIRY_BATCH_SIZE));
+            for (String key : keys) {
+                release(key, StockReservation.Status.EXPIRED);
+            }
+            if (!keys.isEmpty()) {
+                logger.info("Expired {} stock reservations", keys.size());
+            }
+        } catch (Exception e) {
+            logger.error("Stock reservation expiry failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Compares every loaded counter with what the database implies. product.stock itself needs no repair: every sale
+    // stays pending in stock_reservation until a flush has applied it. In-flight operations cause short-lived
+    // differences, so a counter is only corrected when the same drift shows up on two consecutive passes.
+    @Scheduled(fixedDelayString = "${inventory.reconcile-ms:60000}")
+    public void reconcile() {
+        if (available.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> productIds = new ArrayList<>(available.keySet());
+            Snapshot snapshot = transactionTemplate.execute(status -> new Snapshot(
+                    productRepository.findAllById(productIds),
+                    sumByProduct(reservationRepository.sumQuantityByProduct(StockReservation.Status.HELD, productIds)),
+                    sumByProduct(reservationRepository.sumUnappliedByProduct(StockReservation.Status.COMMITTED, productIds))));
+            for (Product product : snapshot.products) {
+                Long productId = product.getId();
+                AtomicInteger counter = available.get(productId);
+                if (counter == null) {
+                    continue;
+                }
+                if (product.getStock() == null) {
+                    available.remove(productId);
+                    untracked.add(productId);
+                    continue;
+                }
+                long expected = product.getStock() - snapshot.unapplied.getOrDefault(productId, 0L)
+                        - snapshot.held.getOrDefault(productId, 0L);
+                int drift = (int) (expected - counter.get());
+                if (drift == 0) {
+                    suspectedDrift.remove(productId);
+                } else if (Integer.valueOf(drift).equals(suspectedDrift.put(productId, drift))) {
+                    counter.addAndGet(drift);
+                    suspectedDrift.remove(productId);
+                    logger.warn("Corrected stock counter for product {} by {}", productId, drift);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Stock reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean tryTake(Long productId, int quantity) {
+        AtomicInteger counter = available.get(productId);
+        if (counter == null) {
+            // Dropped by setStock in the meantime; load it again from the new count
+            ensureLoaded(productId);
+            counter = available.get(productId);
+            if (counter == null) {
+                return true;
+            }
+        }
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private Map<Long, Integer> trackedOnly(Map<Long, Integer> quantities) {
+        Map<Long, Integer> tracked = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == null || quantity < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1 for product ID " + productId);
+            }
+            if (ensureLoaded(productId)) {
+                tracked.merge(productId, quantity, Integer::sum);
+            }
+        });
+        return tracked;
+    }
+
+    // Loads a product's counter on first use; the stripe lock only guards this one-time load
+    private boolean ensureLoaded(Long productId) {
+        if (available.containsKey(productId)) {
+            return true;
+        }
+        if (untracked.contains(productId)) {
+            return false;
+        }
+        synchronized (lockFor(productId)) {
+            if (available.containsKey(productId)) {
+                return true;
+            }
+            Snapshot snapshot = transactionTemplate.execute(status -> new Snapshot(
+                    productRepository.findById(productId).map(List::of).orElse(List.of()),
+                    sumByProduct(reservationRepository.sumQuantityByProduct(StockReservation.Status.HELD, List.of(productId))),
+                    sumByProduct(reservationRepository.sumUnappliedByProduct(StockReservation.Status.COMMITTED, List.of(productId)))));
+            if (snapshot.products.isEmpty()) {
+                throw new IllegalArgumentException("Product not found with ID: " + productId);
+            }
+            Product product = snapshot.products.get(0);
+            if (product.getStock() == null) {
+                untracked.add(productId);
+                return false;
+            }
+            long initial = product.getStock() - snapshot.held.getOrDefault(productId, 0L)
+                    - snapshot.unapplied.getOrDefault(productId, 0L);
+            available.put(productId, new AtomicInteger((int) initial));
+            return true;
+        }
+    }
+
+    // A counter missing here was dropped by setStock and is reloaded from the database on next use
+    private void giveBack(Long productId, int quantity) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+        }
+    }
+
+    private static Map<Long, Long> sumByProduct(List<Object[]> rows) {
+        Map<Long, Long> sums = new HashMap<>();
+        for (Object[] row : rows) {
+            sums.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return sums;
+    }
+
+    private Object lockFor(Long productId) {
+        return loadLocks[Math.floorMod(productId.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Products and reservation sums read in one transaction, so a concurrent flush is seen entirely or not at all
+    private static class Snapshot {
+        final List<Product> products;
+        final Map<Long, Long> held;
+        final Map<Long, Long> unapplied;
+
+        Snapshot(List<Product> products, Map<Long, Long> held, Map<Long, Long> unapplied) {
+            this.products = products;
+            this.held = held;
+            this.unapplied = unapplied;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderExportRow;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Streams orders with their items straight from a forward-only cursor to the response, so memory use does not
+// depend on the date range. Concurrent exports are capped because each one holds a DB connection until done.
+@Service
+public class OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
+    private static final String CSV_HEADER = "order_id,order_date,status,shipment_status,total,payment_intent_id,user_id,user_email," +
+            "item_id,product_id,product_name,category,quantity,price";
+
+    public enum Format {
+        CSV, JSONL;
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    private final CustomerOrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final Semaphore exportPermits;
+
+    public OrderExportService(CustomerOrderRepository orderRepository, ObjectMapper objectMapper,
+                              @Value("${export.orders.max-concurrent:2}") int maxConcurrentExports) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+    }
+
+    public boolean tryAcquire() {
+        return exportPermits.tryAcquire();
+    }
+
+    public void release() {
+        exportPermits.release();
+    }
+
+    @Transactional(readOnly = true)
+    public void export(LocalDateTime from, LocalDateTime to, Format format, boolean gzip, OutputStream outputStream) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        try (Stream<OrderExportRow> stream = orderRepository.streamForExport(from, to)) {
+            Iterator<OrderExportRow> iterator = stream.iterator();
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                while (iterator.hasNext()) {
+                    writeCsvRow(writer, iterator.next());
+                    rows++;
+                }
+            } else {
+                rows = writeJsonLines(writer, iterator);
+            }
+        } finally {
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        }
+        logger.info("Exported {} order rows from {} to {} as {} (gzip: {}) in {} ms",
+                rows, from, to, format, gzip, System.currentTimeMillis() - started);
+    }
+
+    private void writeCsvRow(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(csv(row.getOrderId()));
+        writer.write(',');
+        writer.write(csv(row.getOrderDate()));
+        writer.write(',');
+        writer.write(csv(row.getStatus()));
+        writer.write(',');
+        writer.write(csv(row.getShipmentStatus()));
+        writer.write(',');
+        writer.write(csv(row.getTotal()));
+        writer.write(',');
+        writer.write(csv(row.getPaymentIntentId()));
+        writer.write(',');
+        writer.write(csv(row.getUserId()));
+        writer.write(',');
+        writer.write(csv(row.getUserEmail()));
+        writer.write(',');
+        writer.write(csv(row.getItemId()));
+        writer.write(',');
+        writer.write(csv(row.getProductId()));
+        writer.write(',');
+        writer.write(csv(row.getProductName()));
+        writer.write(',');
+        writer.write(csv(row.getCategory()));
+        writer.write(',');
+        writer.write(csv(row.getQuantity()));
+        writer.write(',');
+        writer.write(csv(row.getPrice()));
+        writer.write('\n');
+    }
+
+    // Rows arrive ordered by order, so one order is buffered at a time and written as a single line
+    private long writeJsonLines(Writer writer, Iterator<OrderExportRow> iterator) throws IOException {
+        long rows = 0;
+        Map<String, Object> current = null;
+        List<Map<String, Object>> items = null;
+        Long currentOrderId = null;
+
+        while (iterator.hasNext()) {
+            OrderExportRow row = iterator.next();
+            rows++;
+            if (!row.getOrderId().equals(currentOrderId)) {
+                if (current != null) {
+                    writeJsonLine(writer, current);
+                }
+                currentOrderId = row.getOrderId();
+                items = new ArrayList<>();
+                current = new LinkedHashMap<>();
+                current.put("orderId", row.getOrderId());
+                current.put("orderDate", row.getOrderDate());
+                current.put("status", row.getStatus());
+                current.put("shipmentStatus", row.getShipmentStatus());
+                current.put("total", row.getTotal());
+                current.put("paymentIntentId", row.getPaymentIntentId());
+                current.put("userId", row.getUserId());
+                current.put("userEmail", row.getUserEmail());
+                current.put("items", items);
+            }
+            if (row.getItemId() != null) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("itemId", row.getItemId());
+                item.put("productId", row.getProductId());
+                item.put("productName", row.getProductName());
+                item.put("category", row.getCategory());
+                item.put("quantity", row.getQuantity());
+                item.put("price", row.getPrice());
+                items.add(item);
+            }
+        }
+        if (current != null) {
+            writeJsonLine(writer, current);
+        }
+        return rows;
+    }
+
+    private void writeJsonLine(Writer writer, Map<String, Object> order) throws IOException {
+        writer.write(objectMapper.writeValueAsString(order));
+        writer.write('\n');
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,291 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.CheckoutRequest;
+import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderIntake;
+import com.ecommerce.ecommerce_backend.repository.OrderIntakeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Asynchronous checkout. Requests are written to the order_intake table and acknowledged right away; a fixed pool
+// of workers runs the regular checkout for each row. The table is the durable queue: the in-memory queue only
+// wakes workers early, and a sweeper re-feeds anything due from the table (including work lost in a restart).
+@Service
+public class OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+    private static final List<OrderIntake.Status> OPEN_STATUSES =
+            List.of(OrderIntake.Status.QUEUED, OrderIntake.Status.PROCESSING, OrderIntake.Status.COMPLETED);
+    private static final int SWEEP_BATCH_SIZE = 200;
+
+    private final OrderIntakeRepository intakeRepository;
+    private final CheckoutService checkoutService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Long> wakeups = new LinkedBlockingQueue<>(10_000);
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final int workerCount;
+    private volatile boolean running = true;
+
+    @Value("${checkout.intake.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${checkout.intake.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public OrderIntakeService(OrderIntakeRepository intakeRepository, CheckoutService checkoutService,
+                              ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                              @Value("${checkout.intake.workers:4}") int workerCount) {
+        this.intakeRepository = intakeRepository;
+        this.checkoutService = checkoutService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.workerCount = workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Stores the request for the given (authenticated) user and returns its tracking id. A second submission for
+    // the same payment intent returns the existing tracking id unless the earlier one failed; the unique index on
+    // the open payment intent settles concurrent submissions.
+    public OrderIntake accept(CheckoutRequest request, Long userId) {
+        OrderIntake existing = findOpen(request.getPaymentIntentId(), userId);
+        if (existing != null) {
+            return existing;
+        }
+        request.setUserId(userId);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid checkout request: " + e.getOriginalMessage());
+        }
+        OrderIntake intake;
+        try {
+            intake = intakeRepository.save(new OrderIntake(UUID.randomUUID().toString(), userId,
+                    request.getPaymentIntentId(), payload));
+        } catch (DataIntegrityViolationException e) {
+            existing = findOpen(request.getPaymentIntentId(), userId);
+            if (existing == null) {
+                throw e;
+            }
+            return existing;
+        }
+        wakeups.offer(intake.getId());
+        logger.info("Accepted checkout {} for payment intent {}", intake.getTrackingId(), intake.getPaymentIntentId());
+        return intake;
+    }
+
+    private OrderIntake findOpen(String paymentIntentId, Long userId) {
+        OrderIntake existing = intakeRepository.findFirstByPaymentIntentIdAndStatusIn(paymentIntentId, OPEN_STATUSES)
+                .orElse(null);
+        if (existing != null && !userId.equals(existing.getUserId())) {
+            throw new IllegalArgumentException("Payment intent " + paymentIntentId + " is already in use");
+        }
+        return existing;
+    }
+
+    public OrderIntake getIntake(String trackingId) {
+        return intakeRepository.findByTrackingId(trackingId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown tracking ID: " + trackingId));
+    }
+
+    public Map<String, Object> toStatus(OrderIntake intake) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("trackingId", intake.getTrackingId());
+        status.put("status", intake.getStatus());
+        status.put("orderId", intake.getOrderId());
+        status.put("message", intake.getMessage());
+        status.put("attempts", intake.getAttempts());
+        status.put("updatedAt", intake.getUpdatedAt());
+        return status;
+    }
+
+    // Pushes one 'status' event once the intake is final, then completes the stream
+    public SseEmitter subscribe(OrderIntake intake) {
+        String trackingId = intake.getTrackingId();
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        if (intake.getStatus().isFinal()) {
+            send(emitter, intake);
+            return emitter;
+        }
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(trackingId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // The worker may have finished between the lookup and registering the emitter
+        OrderIntake latest = getIntake(trackingId);
+        if (latest.getStatus().isFinal()) {
+            notifySubscribers(latest);
+        }
+        return emitter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorkers() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+        logger.info("Started {} order intake workers", workerCount);
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        running = false;
+        workers.shutdownNow();
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                Long id = wakeups.poll(1, TimeUnit.SECONDS);
+                if (id != null) {
+                    process(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Order intake worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // Feeds due rows back to the workers and recovers rows stuck in PROCESSING
+    @Scheduled(fixedDelayString = "${checkout.intake.sweep-ms:5000}")
+    public void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer requeued = transactionTemplate.execute(status -> intakeRepository.requeueStale(
+                    OrderIntake.Status.PROCESSING, OrderIntake.Status.QUEUED, now.minusMinutes(5), now));
+            if (requeued != null && requeued > 0) {
+                logger.warn("Requeued {} stale order intakes", requeued);
+            }
+            for (Long id : intakeRepository.findDueIds(OrderIntake.Status.QUEUED, now, PageRequest.of(0, SWEEP_BATCH_SIZE))) {
+                if (!wakeups.contains(id) && !wakeups.offer(id)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Order intake sweep failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void process(Long id) throws InterruptedException {
+        Integer claimed = transactionTemplate.execute(status -> intakeRepository.claim(
+                id, OrderIntake.Status.QUEUED, OrderIntake.Status.PROCESSING, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        OrderIntake intake = intakeRepository.findById(id).orElseThrow();
+
+        try {
+            CheckoutRequest request = objectMapper.readValue(intake.getPayload(), CheckoutRequest.class);
+            CustomerOrder order = checkoutService.placeOrder(request, 1);
+            intake.setOrderId(order.getId());
+            intake.setMessage(null);
+            finish(intake, OrderIntake.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            if (isRetryable(e) && intake.getAttempts() < maxAttempts) {
+                long delaySeconds = Math.min(60, 1L << intake.getAttempts());
+                intake.setMessage(e.getMessage());
+                intake.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+                intake.setStatus(OrderIntake.Status.QUEUED);
+                intake.setUpdatedAt(LocalDateTime.now());
+                intakeRepository.save(intake);
+                logger.warn("Checkout {} attempt {} failed, retrying in {}s: {}",
+                        intake.getTrackingId(), intake.getAttempts(), delaySeconds, e.getMessage());
+            } else {
+                intake.setMessage(e.getMessage());
+                finish(intake, OrderIntake.Status.FAILED);
+                logger.warn("Checkout {} failed after {} attempts: {}", intake.getTrackingId(), intake.getAttempts(), e.getMessage());
+            }
+        }
+    }
+
+    // Only failures that can go away on their own: a pending payment, a retryable gateway error, or a transient
+    // database problem (lock wait, deadlock, lost connection). Anything else, such as a missing user or product,
+    // fails the intake at once instead of burning its attempts.
+    private boolean isRetryable(Exception e) {
+        if (e instanceof PaymentNotCompletedException paymentException) {
+            return paymentException.isPending();
+        }
+        if (e instanceof PaymentGatewayException gatewayException) {
+            return gatewayException.isRetryable();
+        }
+        if (e instanceof RejectedExecutionException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finish(OrderIntake intake, OrderIntake.Status status) {
+        intake.setStatus(status);
+        intake.setUpdatedAt(LocalDateTime.now());
+        OrderIntake saved = intakeRepository.save(intake);
+        notifySubscribers(saved);
+    }
+
+    private void notifySubscribers(OrderIntake intake) {
+        List<SseEmitter> emitters = subscribers.remove(intake.getTrackingId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, intake));
+        }
+    }
+
+    private void send(SseEmitter emitter, OrderIntake intake) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(toStatus(intake)));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.AdminOrderPage;
+import com.ecommerce.ecommerce_backend.entity.AdminOrderRow;
+import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderSearchCriteria;
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.entity.ShipmentStatus;
+import com.ecommerce.ecommerce_backend.entity.User;
+import com.ecommerce.ecommerce_backend.util.OrderCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Admin order search. Only the filters that are present end up in the WHERE clause, so MySQL can pick the
+// matching (filter, order_date, id) index and walk it in keyset order.
+@Service
+public class OrderSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchService.class);
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public AdminOrderPage search(OrderSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AdminOrderRow> query = cb.createQuery(AdminOrderRow.class);
+        Root<CustomerOrder> order = query.from(CustomerOrder.class);
+        Join<CustomerOrder, User> user = order.join("user", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (hasText(criteria.getStatus())) {
+            predicates.add(cb.equal(order.get("status"), OrderStatus.fromLabel(criteria.getStatus()).getLabel()));
+        }
+        if (hasText(criteria.getShipmentStatus())) {
+            predicates.add(cb.equal(order.get("shipmentStatus"), ShipmentStatus.fromLabel(criteria.getShipmentStatus()).getLabel()));
+        }
+        if (criteria.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.<LocalDateTime>get("orderDate"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            predicates.add(cb.lessThan(order.<LocalDateTime>get("orderDate"), criteria.getTo()));
+        }
+        if (hasText(criteria.getEmail())) {
+            predicates.add(cb.equal(user.get("email"), criteria.getEmail().trim().toLowerCase()));
+        }
+        if (hasText(criteria.getPaymentIntentId())) {
+            predicates.add(cb.equal(order.get("paymentIntentId"), criteria.getPaymentIntentId().trim()));
+        }
+        if (hasText(cursor)) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            predicates.add(cb.or(
+                    cb.lessThan(order.<LocalDateTime>get("orderDate"), after.getOrderDate()),
+                    cb.and(
+                            cb.equal(order.get("orderDate"), after.getOrderDate()),
+                            cb.lessThan(order.<Long>get("id"), after.getId()))));
+        }
+
+        query.select(cb.construct(AdminOrderRow.class,
+                        order.get("id"),
+                        order.get("orderDate"),
+                        order.get("status"),
+                        order.get("shipmentStatus"),
+                        order.get("total"),
+                        order.get("paymentIntentId"),
+                        user.get("id"),
+                        user.get("email")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(order.get("orderDate")), cb.desc(order.get("id")));
+
+        List<AdminOrderRow> rows = entityManager.createQuery(query)
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        boolean hasMore = rows.size() > pageSize;
+        List<AdminOrderRow> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            AdminOrderRow last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+        logger.debug("Order search returned {} rows with {} filters, hasMore: {}", page.size(), predicates.size(), hasMore);
+        return new AdminOrderPage(page, nextCursor, hasMore);
+    }
+
+    private boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
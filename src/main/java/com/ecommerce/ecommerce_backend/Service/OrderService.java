@@ -6,9 +6,11 @@ import com.ecommerce.ecommerce_backend.entity.*;
 import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
 import com.ecommerce.ecommerce_backend.repository.ProductRepository;
 import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import com.ecommerce.ecommerce_backend.util.OrderCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,7 @@ import java.util.Map;
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private CustomerOrderRepository orderRepository;
@@ -47,8 +50,8 @@ public class OrderService {
         CustomerOrder order = new CustomerOrder();
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
-        order.setStatus("PLACED");
-        order.setShipmentStatus("PENDING");
+        order.setStatus(OrderStatus.PLACED.getLabel());
+        order.setShipmentStatus(ShipmentStatus.PENDING.getLabel());
         order.setPaymentIntentId(paymentIntentId);
 
         // Set shipping address
@@ -99,4 +102,37 @@ public class OrderService {
 
         return order;
     }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getOrderHistory(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findOrderSummaries(userId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findOrderSummariesBefore(userId, after.getOrderDate(), after.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+        logger.debug("Loaded {} order summaries for user ID: {}, hasMore: {}", page.size(), userId, hasMore);
+        return new OrderHistoryPage(new ArrayList<>(page), nextCursor, hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderDetail getOrderDetail(Long userId, Long orderId) {
+        CustomerOrder order = orderRepository.findDetailById(orderId)
+                .filter(o -> o.getUser() != null && o.getUser().getId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+        return OrderDetail.from(order);
+    }
 }
\ No newline at end of file
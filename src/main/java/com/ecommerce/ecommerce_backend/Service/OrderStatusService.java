@@ -0,0 +1,161 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.BulkTransitionResult;
+import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.ShipmentStatus;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Single entry point for order and shipment status changes. Invalid transitions raise IllegalStateException,
+// concurrent writers lose with an optimistic locking failure instead of overwriting each other.
+@Service
+public class OrderStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusService.class);
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    private final CustomerOrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderStatusService(CustomerOrderRepository orderRepository, TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher) {
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Applies the PAID/Packing transition to a new or existing order without saving it.
+    // Returns the previous status (null for a new order) so the caller can publish the change once saved.
+    public OrderStatus markPaid(CustomerOrder order) {
+        if (order.getStatus() == null) {
+            order.setStatus(OrderStatus.PAID.getLabel());
+            order.setShipmentStatus(ShipmentStatus.PACKING.getLabel());
+            return null;
+        }
+
+        OrderStatus current = OrderStatus.fromLabel(order.getStatus());
+        if (current != OrderStatus.PAID) {
+            requireTransition(current, OrderStatus.PAID);
+            order.setStatus(OrderStatus.PAID.getLabel());
+        }
+        ShipmentStatus shipment = order.getShipmentStatus() != null
+                ? ShipmentStatus.fromLabel(order.getShipmentStatus())
+                : ShipmentStatus.PENDING;
+        if (shipment == ShipmentStatus.PENDING) {
+            order.setShipmentStatus(ShipmentStatus.PACKING.getLabel());
+        }
+        return current;
+    }
+
+    // Listeners run after the surrounding transaction commits, so a rolled back change is never seen
+    public void publishStatusChange(CustomerOrder order, OrderStatus previousStatus) {
+        if (previousStatus == OrderStatus.fromLabel(order.getStatus())) {
+            return;
+        }
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus));
+    }
+
+    @Transactional
+    public CustomerOrder cancel(Long orderId) {
+        CustomerOrder order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+
+        OrderStatus current = OrderStatus.fromLabel(order.getStatus());
+        if (current != OrderStatus.PAID) {
+            throw new IllegalStateException("Only orders with status 'PAID' can be cancelled.");
+        }
+        ShipmentStatus shipment = ShipmentStatus.fromLabel(order.getShipmentStatus());
+        if (!shipment.canTransitionTo(ShipmentStatus.CANCELLED)) {
+            throw new IllegalStateException("Orders with shipment status '" + shipment.getLabel() + "' can no longer be cancelled.");
+        }
+
+        order.setStatus(OrderStatus.CANCELLED.getLabel());
+        order.setShipmentStatus(ShipmentStatus.CANCELLED.getLabel());
+        CustomerOrder saved = orderRepository.saveAndFlush(order);
+        publishStatusChange(saved, current);
+        logger.info("Order {} cancelled (version {})", orderId, saved.getVersion());
+        return saved;
+    }
+
+    @Transactional
+    public CustomerOrder transitionShipment(Long orderId, ShipmentStatus target, Long expectedVersion) {
+        CustomerOrder order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+        if (expectedVersion != null && expectedVersion != order.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(CustomerOrder.class, orderId);
+        }
+
+        ShipmentStatus current = ShipmentStatus.fromLabel(order.getShipmentStatus());
+        if (!current.canTransitionTo(target)) {
+            throw new IllegalStateException("Cannot change shipment status from '" + current.getLabel() + "' to '" + target.getLabel() + "'");
+        }
+        OrderStatus previousStatus = OrderStatus.fromLabel(order.getStatus());
+        if (target == ShipmentStatus.CANCELLED) {
+            requireTransition(previousStatus, OrderStatus.CANCELLED);
+            order.setStatus(OrderStatus.CANCELLED.getLabel());
+        }
+
+        order.setShipmentStatus(target.getLabel());
+        CustomerOrder saved = orderRepository.saveAndFlush(order);
+        publishStatusChange(saved, previousStatus);
+        logger.info("Order {} shipment status changed {} -> {} (version {})", orderId, current, target, saved.getVersion());
+        return saved;
+    }
+
+    // Moves many orders between shipment states with one locking SELECT and one guarded UPDATE per chunk.
+    // Orders that were missing or no longer in the 'from' state are reported as conflicts.
+    public BulkTransitionResult bulkTransitionShipment(List<Long> orderIds, ShipmentStatus from, ShipmentStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStateException("Cannot change shipment status from '" + from.getLabel() + "' to '" + to.getLabel() + "'");
+        }
+        if (to == ShipmentStatus.CANCELLED) {
+            throw new IllegalStateException("Use order cancellation to cancel orders");
+        }
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        List<Long> conflicts = new ArrayList<>();
+        int updated = 0;
+
+        for (int start = 0; start < distinctIds.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(start, Math.min(start + BULK_CHUNK_SIZE, distinctIds.size()));
+            Integer chunkUpdated = transactionTemplate.execute(status -> {
+                Set<Long> locked = new HashSet<>(orderRepository.lockIdsByShipmentStatus(chunk, from.getLabel()));
+                for (Long id : chunk) {
+                    if (!locked.contains(id)) {
+                        conflicts.add(id);
+                    }
+                }
+                if (locked.isEmpty()) {
+                    return 0;
+                }
+                return orderRepository.updateShipmentStatus(locked, from.getLabel(), to.getLabel());
+            });
+            updated += chunkUpdated != null ? chunkUpdated : 0;
+        }
+
+        logger.info("Bulk shipment transition {} -> {}: requested {}, updated {}, conflicts {}",
+                from, to, distinctIds.size(), updated, conflicts.size());
+        return new BulkTransitionResult(distinctIds.size(), updated, conflicts);
+    }
+
+    private void requireTransition(OrderStatus current, OrderStatus target) {
+        if (!current.canTransitionTo(target)) {
+            throw new IllegalStateException("Cannot change order status from '" + current.getLabel() + "' to '" + target.getLabel() + "'");
+        }
+    }
+}
@@ -26,15 +26,21 @@ public class PasswordResetService {
     private final PasswordResetTokenRepository tokenRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final IdentityService identityService;
 
     public PasswordResetService(UserRepository userRepository,
                                 PasswordResetTokenRepository tokenRepository,
                                 EmailService emailService,
-                                PasswordEncoder passwordEncoder) {
+                                PasswordEncoder passwordEncoder,
+                                TokenRevocationService tokenRevocationService,
+                                IdentityService identityService) {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
         this.emailService = emailService;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
+        this.identityService = identityService;
     }
 
     @Transactional
@@ -100,8 +106,11 @@ public class PasswordResetService {
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        identityService.invalidateAfterCommit(user.getUsername());
 
         tokenRepository.delete(resetToken);
+        // Sessions opened with the old password must not outlive it
+        tokenRevocationService.revokeSubject(user.getUsername());
         logger.info("Password reset successful for user: {}. Token deleted: {}", user.getUsername(), resetToken);
     }
 }
\ No newline at end of file
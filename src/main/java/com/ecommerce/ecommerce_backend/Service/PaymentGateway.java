@@ -0,0 +1,25 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.PaymentIntentDetails;
+import com.ecommerce.ecommerce_backend.entity.RefundDetails;
+
+import java.util.Map;
+
+// Payment provider operations used by checkout. Amounts are in the smallest currency unit.
+public interface PaymentGateway {
+
+    PaymentIntentDetails createPaymentIntent(long amount, String currency, String idempotencyKey) throws PaymentGatewayException;
+
+    PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) throws PaymentGatewayException;
+
+    // Changes the amount of an intent that has not been paid yet
+    PaymentIntentDetails updatePaymentIntent(String paymentIntentId, long amount, String currency) throws PaymentGatewayException;
+
+    void cancelPaymentIntent(String paymentIntentId) throws PaymentGatewayException;
+
+    RefundDetails refund(String paymentIntentId, long amount, String idempotencyKey) throws PaymentGatewayException;
+
+    RefundDetails retrieveRefund(String refundId) throws PaymentGatewayException;
+
+    Map<String, Object> getMetrics();
+}
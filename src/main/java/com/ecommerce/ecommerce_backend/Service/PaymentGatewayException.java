@@ -0,0 +1,28 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+public class PaymentGatewayException extends Exception {
+
+    public static final String CIRCUIT_OPEN = "circuit_open";
+
+    private final String code;
+    private final boolean retryable;
+
+    public PaymentGatewayException(String message, String code, boolean retryable) {
+        this(message, code, retryable, null);
+    }
+
+    public PaymentGatewayException(String message, String code, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+        this.retryable = retryable;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    // True for provider outages, timeouts and rate limiting; false for declined or invalid requests
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
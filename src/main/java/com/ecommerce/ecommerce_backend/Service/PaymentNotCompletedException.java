@@ -0,0 +1,21 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+// The payment intent exists but has not succeeded (yet)
+public class PaymentNotCompletedException extends RuntimeException {
+
+    private final String paymentStatus;
+
+    public PaymentNotCompletedException(String paymentStatus) {
+        super("Payment failed: " + paymentStatus);
+        this.paymentStatus = paymentStatus;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    // Stripe may still move these to 'succeeded' on its own
+    public boolean isPending() {
+        return "processing".equals(paymentStatus) || "requires_capture".equals(paymentStatus);
+    }
+}
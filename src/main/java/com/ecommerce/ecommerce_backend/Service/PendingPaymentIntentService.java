@@ -0,0 +1,229 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.PaymentIntentDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps each user's open payment intent so that revisiting the payment page does not create a new one every time.
+// An intent is reused as is while the cart fingerprint (SHA-256 of items, amount and currency) is unchanged, and
+// its amount is updated in place when the cart changed but the intent is still waiting for a payment method.
+// Cart edits mark the entry stale, placing the order drops it. An intent that is replaced is cancelled and its stock
+// hold released, unless the provider shows it is already being paid.
+@Service
+public class PendingPaymentIntentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingPaymentIntentService.class);
+    private static final String REQUIRES_PAYMENT_METHOD = "requires_payment_method";
+    // Statuses in which the customer has not paid yet and the intent can still be cancelled
+    private static final Set<String> CANCELLABLE =
+            Set.of(REQUIRES_PAYMENT_METHOD, "requires_confirmation", "requires_action");
+
+    private static class PendingIntent {
+        private final PaymentIntentDetails details;
+        private final String fingerprint;
+        private final long createdAt;
+        private volatile long verifiedAt;
+        private volatile boolean stale;
+
+        PendingIntent(PaymentIntentDetails details, String fingerprint) {
+            this.details = details;
+            this.fingerprint = fingerprint;
+            this.createdAt = System.currentTimeMillis();
+            this.verifiedAt = createdAt;
+        }
+    }
+
+    private final PaymentGateway paymentGateway;
+    private final InventoryService inventoryService;
+    private final Map<Long, PendingIntent> pending = new ConcurrentHashMap<>();
+    // One lock per user with a call in progress, so slow provider calls only queue that user's own requests
+    private final Map<Long, UserLock> userLocks = new ConcurrentHashMap<>();
+
+    @Value("${payment.intent-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    // A reused intent is re-read from the provider once its last known status is older than this, in case it was
+    // paid without an order being placed
+    @Value("${payment.intent-cache.verify-after-ms:60000}")
+    private long verifyAfterMs;
+
+    public PendingPaymentIntentService(PaymentGateway paymentGateway, InventoryService inventoryService) {
+        this.paymentGateway = paymentGateway;
+        this.inventoryService = inventoryService;
+    }
+
+    private static class UserLock {
+        int holders;
+    }
+
+    // Returns an intent for the cart with its stock held. Throws IllegalStateException if the stock is not there,
+    // in which case the intent has been cancelled.
+    public PaymentIntentDetails obtain(Long userId, Map<Long, Integer> quantities, Map<Long, Double> prices,
+                                       long amount, String currency) throws PaymentGatewayException {
+        String fingerprint = fingerprint(quantities, prices, amount, currency);
+        UserLock lock = lockFor(userId);
+        try {
+            synchronized (lock) {
+                return obtainLocked(userId, quantities, fingerprint, amount, currency);
+            }
+        } finally {
+            unlock(userId);
+        }
+    }
+
+    private PaymentIntentDetails obtainLocked(Long userId, Map<Long, Integer> quantities, String fingerprint,
+                                              long amount, String currency) throws PaymentGatewayException {
+        PendingIntent cached = current(userId);
+        if (cached != null && !cached.stale && cached.fingerprint.equals(fingerprint) && stillOpen(cached)) {
+            holdStock(userId, cached.details.getId(), quantities, true);
+            logger.debug("Reusing payment intent {} for user {}", cached.details.getId(), userId);
+            return cached.details;
+        }
+
+        if (cached != null && currency.equalsIgnoreCase(cached.details.getCurrency())) {
+            PaymentIntentDetails updated = tryUpdate(cached, amount, currency);
+            if (updated != null) {
+                holdStock(userId, updated.getId(), quantities, true);
+                pending.put(userId, new PendingIntent(updated, fingerprint));
+                logger.info("Updated payment intent {} for user {} to amount {}", updated.getId(), userId, amount);
+                return updated;
+            }
+        }
+        pending.remove(userId);
+        if (cached != null) {
+            retire(cached.details.getId());
+        }
+
+        PaymentIntentDetails created = paymentGateway.createPaymentIntent(amount, currency, null);
+        holdStock(userId, created.getId(), quantities, false);
+        pending.put(userId, new PendingIntent(created, fingerprint));
+        logger.info("Payment intent created successfully: {}", created.getId());
+        return created;
+    }
+
+    // Called on any cart change: the intent can still be updated, but not reused as is
+    public void cartChanged(Long userId) {
+        PendingIntent cached = pending.get(userId);
+        if (cached != null) {
+            cached.stale = true;
+        }
+    }
+
+    // Called once an order has been placed with the intent
+    public void orderPlaced(Long userId, String paymentIntentId) {
+        pending.computeIfPresent(userId, (id, cached) ->
+                cached.details.getId().equals(paymentIntentId) ? null : cached);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.intent-cache.sweep-ms:300000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMinutes * 60_000;
+        pending.values().removeIf(cached -> cached.createdAt < cutoff);
+    }
+
+    public static String fingerprint(Map<Long, Integer> quantities, Map<Long, Double> prices, long amount, String currency) {
+        StringBuilder canonical = new StringBuilder();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> canonical.append(productId).append(':')
+                .append(quantity).append(':').append(prices.get(productId)).append(';'));
+        canonical.append(amount).append(':').append(currency.toLowerCase());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private PendingIntent current(Long userId) {
+        PendingIntent cached = pending.get(userId);
+        if (cached != null && cached.createdAt < System.currentTimeMillis() - ttlMinutes * 60_000) {
+            pending.remove(userId);
+            return null;
+        }
+        return cached;
+    }
+
+    private boolean stillOpen(PendingIntent cached) throws PaymentGatewayException {
+        if (System.currentTimeMillis() - cached.verifiedAt < verifyAfterMs) {
+            return true;
+        }
+        PaymentIntentDetails latest = paymentGateway.retrievePaymentIntent(cached.details.getId());
+        cached.verifiedAt = System.currentTimeMillis();
+        return REQUIRES_PAYMENT_METHOD.equals(latest.getStatus());
+    }
+
+    // Provider errors that mean "this intent can no longer be changed" fall back to a new intent; outages propagate
+    private PaymentIntentDetails tryUpdate(PendingIntent cached, long amount, String currency) throws PaymentGatewayException {
+        try {
+            PaymentIntentDetails updated = paymentGateway.updatePaymentIntent(cached.details.getId(), amount, currency);
+            return REQUIRES_PAYMENT_METHOD.equals(updated.getStatus()) ? updated : null;
+        } catch (PaymentGatewayException e) {
+            if (e.isRetryable()) {
+                throw e;
+            }
+            logger.info("Payment intent {} cannot be updated ({}), creating a new one", cached.details.getId(), e.getCode());
+            return null;
+        }
+    }
+
+    private void holdStock(Long userId, String paymentIntentId, Map<Long, Integer> quantities, boolean reused) {
+        try {
+            if (reused) {
+                inventoryService.renew(paymentIntentId, quantities);
+            } else {
+                inventoryService.reserve(paymentIntentId, quantities);
+            }
+        } catch (IllegalStateException e) {
+            pending.remove(userId);
+            try {
+                paymentGateway.cancelPaymentIntent(paymentIntentId);
+            } catch (PaymentGatewayException cancelError) {
+                logger.warn("Failed to cancel payment intent {}: {}", paymentIntentId, cancelError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    // Cancels an intent that is being replaced and returns its stock. One that is already paid or processing is left
+    // alone: its order may still be placed, and checkout commits its stock either way.
+    private void retire(String paymentIntentId) {
+        try {
+            String status = paymentGateway.retrievePaymentIntent(paymentIntentId).getStatus();
+            if (!CANCELLABLE.contains(status)) {
+                logger.info("Payment intent {} is {}, not cancelling it", paymentIntentId, status);
+                return;
+            }
+            paymentGateway.cancelPaymentIntent(paymentIntentId);
+        } catch (PaymentGatewayException e) {
+            // It may still be paid; the hold then expires on its own
+            logger.warn("Failed to cancel replaced payment intent {}: {}", paymentIntentId, e.getMessage());
+            return;
+        }
+        inventoryService.release(paymentIntentId);
+        logger.info("Cancelled replaced payment intent {}", paymentIntentId);
+    }
+
+    private UserLock lockFor(Long userId) {
+        return userLocks.compute(userId, (id, lock) -> {
+            UserLock held = lock != null ? lock : new UserLock();
+            held.holders++;
+            return held;
+        });
+    }
+
+    private void unlock(Long userId) {
+        userLocks.computeIfPresent(userId, (id, lock) -> --lock.holders == 0 ? null : lock);
+    }
+}
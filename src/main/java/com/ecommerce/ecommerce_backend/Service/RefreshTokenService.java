@@ -0,0 +1,227 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.RefreshTokenFamily;
+import com.ecommerce.ecommerce_backend.repository.RefreshTokenFamilyRepository;
+import com.ecommerce.ecommerce_backend.util.ExpiringLruCache;
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Refresh token rotation. Each login starts a family; every refresh swaps the family's current token for a new one,
+// and presenting a token that is no longer current revokes the family (reuse detection). A refresh is one
+// compare-and-set UPDATE on the indexed family id: the identity and roles needed for the new access token are
+// kept on the family row and in a bounded cache of active families, so neither users nor admins are read.
+// Clients that refresh twice at once (two tabs, a retried request) present the same token twice. So for a short
+// grace window the token just replaced is not treated as reuse: on the node that rotated it, it gets the same new
+// pair again; elsewhere it gets nothing, and the family stays intact.
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public static class TokenPair {
+        private final String accessToken;
+        private final String refreshToken;
+
+        TokenPair(String accessToken, String refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+
+    private static class ActiveFamily {
+        final String username;
+        final Long userId;
+        final Set<String> roles;
+        final String tokenHash;
+        final String previousTokenHash;
+        final long rotatedAt;
+
+        ActiveFamily(String username, Long userId, Set<String> roles, String tokenHash, String previousTokenHash,
+                     long rotatedAt) {
+            this.username = username;
+            this.userId = userId;
+            this.roles = roles;
+            this.tokenHash = tokenHash;
+            this.previousTokenHash = previousTokenHash;
+            this.rotatedAt = rotatedAt;
+        }
+
+        ActiveFamily rotated(String newHash, long now) {
+            return new ActiveFamily(username, userId, roles, newHash, tokenHash, now);
+        }
+    }
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final ExpiringLruCache<String, ActiveFamily> activeFamilies;
+    // Replaced token hash -> the pair it was rotated to, kept for the grace window
+    private final ExpiringLruCache<String, TokenPair> recentRotations;
+
+    @Value("${jwt.refresh.grace-ms:10000}")
+    private long graceMs;
+
+    public RefreshTokenService(RefreshTokenFamilyRepository familyRepository, JwtUtil jwtUtil,
+                               TokenRevocationService tokenRevocationService,
+                               @Value("${jwt.refresh.cache.max-entries:10000}") int cacheMaxEntries) {
+        this.familyRepository = familyRepository;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.activeFamilies = new ExpiringLruCache<>(cacheMaxEntries, 16);
+        this.recentRotations = new ExpiringLruCache<>(cacheMaxEntries, 16);
+    }
+
+    // Starts a new family at login or registration and returns its first refresh token
+    public String issue(String username, Long userId, Set<String> roles) {
+        String familyId = UUID.randomUUID().toString();
+        String refreshToken = jwtUtil.generateRefreshToken(username, familyId);
+        String tokenHash = JwtUtil.hash(refreshToken);
+        LocalDateTime expiresAt = newExpiry();
+        familyRepository.save(new RefreshTokenFamily(familyId, username, userId, String.join(",", roles), tokenHash, expiresAt));
+        activeFamilies.put(familyId, new ActiveFamily(username, userId, Set.copyOf(roles), tokenHash, null,
+                System.currentTimeMillis()), toMillis(expiresAt));
+        return refreshToken;
+    }
+
+    // New access and refresh token for a current refresh token; null if the token is invalid, revoked or reused.
+    // The token replaced by the latest rotation gets that rotation's pair while inside the grace window.
+    public TokenPair rotate(String refreshToken) {
+        VerifiedToken verified = jwtUtil.tryVerify(refreshToken);
+        if (verified == null || tokenRevocationService.isRevoked(verified)) {
+            return null;
+        }
+        String familyId = verified.getFamilyId();
+        if (familyId == null) {
+            logger.warn("Refresh attempted with a token outside any family for {}", verified.getSubject());
+            return null;
+        }
+
+        String tokenHash = JwtUtil.hash(refreshToken);
+        ActiveFamily family = activeFamilies.get(familyId);
+        if (family == null || !family.tokenHash.equals(tokenHash)) {
+            // Not cached, or another node rotated it since; the row decides
+            family = load(familyId);
+            if (family == null) {
+                return null;
+            }
+        }
+        if (!family.tokenHash.equals(tokenHash)) {
+            return replayOrRevoke(familyId, family, tokenHash, verified.getSubject());
+        }
+
+        String newRefreshToken = jwtUtil.generateRefreshToken(family.username, familyId);
+        String newHash = JwtUtil.hash(newRefreshToken);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = newExpiry();
+        if (familyRepository.rotate(familyId, tokenHash, newHash, now, expiresAt) == 0) {
+            // Someone else presented this token first, or the family was revoked meanwhile; the row decides which
+            family = load(familyId);
+            return family != null ? replayOrRevoke(familyId, family, tokenHash, verified.getSubject()) : null;
+        }
+        String accessToken = jwtUtil.generateAccessToken(family.username, family.roles, family.userId);
+        TokenPair pair = new TokenPair(accessToken, newRefreshToken);
+        if (graceMs > 0) {
+            recentRotations.put(tokenHash, pair, System.currentTimeMillis() + graceMs);
+        }
+        activeFamilies.put(familyId, family.rotated(newHash, toMillis(now)), toMillis(expiresAt));
+        jwtUtil.evictToken(refreshToken);
+        return pair;
+    }
+
+    // Ends the family the token belongs to, e.g. on logout
+    public void revoke(String refreshToken) {
+        VerifiedToken verified = jwtUtil.tryVerify(refreshToken);
+        if (verified == null || verified.getFamilyId() == null) {
+            return;
+        }
+        familyRepository.revoke(verified.getFamilyId());
+        activeFamilies.remove(verified.getFamilyId());
+        jwtUtil.evictToken(refreshToken);
+    }
+
+    public void revokeAll(String username) {
+        int revoked = familyRepository.revokeByUsername(username);
+        activeFamilies.removeIf((familyId, family) -> family.username.equals(username));
+        logger.info("Revoked {} refresh token families of {}", revoked, username);
+    }
+
+    @Scheduled(cron = "${jwt.refresh.cleanup-cron:0 30 0 * * *}")
+    public void deleteExpired() {
+        int deleted = familyRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Deleted {} expired refresh token families", deleted);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", activeFamilies.size());
+        stats.put("hits", activeFamilies.getHits());
+        stats.put("misses", activeFamilies.getMisses());
+        stats.put("hitRatio", activeFamilies.getHitRatio());
+        return stats;
+    }
+
+    private ActiveFamily load(String familyId) {
+        RefreshTokenFamily row = familyRepository.findByFamilyId(familyId).orElse(null);
+        if (row == null || row.isRevoked() || !row.getExpiresAt().isAfter(LocalDateTime.now())) {
+            activeFamilies.remove(familyId);
+            return null;
+        }
+        Set<String> roles = Arrays.stream(row.getRoles().split(","))
+                .filter(role -> !role.isBlank())
+                .collect(Collectors.toUnmodifiableSet());
+        ActiveFamily family = new ActiveFamily(row.getUsername(), row.getUserId(), roles, row.getTokenHash(),
+                row.getPreviousTokenHash(), toMillis(row.getRotatedAt()));
+        activeFamilies.put(familyId, family, toMillis(row.getExpiresAt()));
+        return family;
+    }
+
+    // Called with the family as stored, after the presented token turned out not to be current
+    private TokenPair replayOrRevoke(String familyId, ActiveFamily family, String tokenHash, String username) {
+        if (tokenHash.equals(family.previousTokenHash) && System.currentTimeMillis() - family.rotatedAt < graceMs) {
+            TokenPair pair = recentRotations.get(tokenHash);
+            if (pair == null) {
+                logger.info("Refresh token of {} was rotated moments ago on another node, family {} kept", username, familyId);
+            }
+            return pair;
+        }
+        reuseDetected(familyId, username);
+        return null;
+    }
+
+    private void reuseDetected(String familyId, String username) {
+        familyRepository.revoke(familyId);
+        activeFamilies.remove(familyId);
+        logger.warn("Refresh token reuse detected for {}, revoked token family {}", username, familyId);
+    }
+
+    private LocalDateTime newExpiry() {
+        return LocalDateTime.now().plus(Duration.ofMillis(jwtUtil.getRefreshTokenExpirationMillis()));
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,332 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.RefundDetails;
+import com.ecommerce.ecommerce_backend.entity.RefundJob;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.RefundJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Refunds for cancelled orders. Cancelling a paid order writes a refund_job row in the same transaction; after
+// commit the job goes to a bounded worker pool, so no request thread waits on the payment provider. The table is
+// the queue: jobs that did not fit in the pool, failed with a retryable error or were lost in a restart are picked
+// up again by the dispatcher, and a reconciliation pass settles refunds the provider reported as pending.
+@Service
+public class RefundService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefundService.class);
+    private static final int DISPATCH_BATCH_SIZE = 200;
+    private static final int RECONCILE_PAGE_SIZE = 100;
+
+    private final RefundJobRepository refundJobRepository;
+    private final CustomerOrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService reconciler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "refund-reconciler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    @Value("${refund.max-attempts:8}")
+    private int maxAttempts;
+
+    public RefundService(RefundJobRepository refundJobRepository, CustomerOrderRepository orderRepository,
+                         PaymentGateway paymentGateway, TransactionTemplate transactionTemplate,
+                         @Value("${refund.workers:4}") int workerCount,
+                         @Value("${refund.queue-capacity:1000}") int queueCapacity) {
+        this.refundJobRepository = refundJobRepository;
+        this.orderRepository = orderRepository;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "refund-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        reconciler.shutdownNow();
+    }
+
+    // Runs inside the cancelling transaction, so the order status and its refund job commit or roll back together
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() != OrderStatus.PAID || event.getNewStatus() != OrderStatus.CANCELLED) {
+            return;
+        }
+        CustomerOrder order = orderRepository.findById(event.getOrderId()).orElse(null);
+        if (order == null || order.getPaymentIntentId() == null) {
+            logger.warn("Order {} was cancelled without a payment intent, no refund queued", event.getOrderId());
+            return;
+        }
+        if (refundJobRepository.findByOrderId(order.getId()).isPresent()) {
+            return;
+        }
+        RefundJob job = refundJobRepository.save(new RefundJob(order.getId(), order.getPaymentIntentId(),
+                Math.round(order.getTotal() * 100)));
+        order.setRefundStatus(job.getStatus().name());
+        logger.info("Queued refund of {} for cancelled order {}", job.getAmount(), order.getId());
+
+        Long jobId = job.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(jobId);
+            }
+        });
+    }
+
+    public RefundJob getRefund(Long orderId) {
+        return refundJobRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("No refund for order ID: " + orderId));
+    }
+
+    public Map<String, Object> toStatus(RefundJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("orderId", job.getOrderId());
+        status.put("status", job.getStatus());
+        status.put("amount", job.getAmount());
+        status.put("refundId", job.getRefundId());
+        status.put("attempts", job.getAttempts());
+        status.put("message", job.getMessage());
+        status.put("updatedAt", job.getUpdatedAt());
+        return status;
+    }
+
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", workers.getActiveCount());
+        stats.put("queued", workers.getQueue().size());
+        stats.put("completed", workers.getCompletedTaskCount());
+        return stats;
+    }
+
+    // Hands a job to the pool unless it is already there. A full pool is not an error: the dispatcher retries.
+    private void dispatch(Long jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(jobId);
+                } catch (Exception e) {
+                    logger.error("Refund job {} failed unexpectedly: {}", jobId, e.getMessage(), e);
+                } finally {
+                    inFlight.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(jobId);
+            logger.debug("Refund pool full, job {} left for the dispatcher", jobId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${refund.dispatch-ms:5000}")
+    public void dispatchDue() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime staleBefore = now.minusMinutes(5);
+            Integer requeued = transactionTemplate.execute(status -> refundJobRepository.requeueStale(
+                    RefundJob.Status.PROCESSING, RefundJob.Status.PENDING, staleBefore, maxAttempts, now));
+            if (requeued != null && requeued > 0) {
+                logger.warn("Requeued {} stale refund jobs", requeued);
+            }
+            List<Long> exhausted = transactionTemplate.execute(status -> failExhaustedStale(staleBefore, now));
+            if (exhausted != null && !exhausted.isEmpty()) {
+                logger.error("Refunds for orders {} stalled after {} attempts, marked FAILED", exhausted, maxAttempts);
+            }
+            int capacity = workers.getQueue().remainingCapacity();
+            if (capacity == 0) {
+                return;
+            }
+            for (Long id : refundJobRepository.findDueIds(RefundJob.Status.PENDING, now,
+                    PageRequest.of(0, Math.min(capacity, DISPATCH_BATCH_SIZE)))) {
+                dispatch(id);
+            }
+        } catch (Exception e) {
+            logger.error("Refund dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void process(Long jobId) {
+        Integer claimed = transactionTemplate.execute(status -> refundJobRepository.claim(
+                jobId, RefundJob.Status.PENDING, RefundJob.Status.PROCESSING, LocalDateTime.now()));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        RefundJob job = refundJobRepository.findById(jobId).orElseThrow();
+
+        try {
+            RefundDetails refund = paymentGateway.refund(job.getPaymentIntentId(), job.getAmount(), job.getIdempotencyKey());
+            job.setRefundId(refund.getId());
+            job.setMessage(null);
+            apply(job, refund);
+            save(job);
+        } catch (PaymentGatewayException e) {
+            retryOrFail(job, e, e.isRetryable());
+        } catch (RuntimeException e) {
+            // Anything else (a database error while recording the result) must not leave the job in PROCESSING;
+            // a resend is safe because of the idempotency key
+            logger.error("Refund job {} for order {} failed: {}", jobId, job.getOrderId(), e.getMessage(), e);
+            retryOrFail(job, e, true);
+        }
+    }
+
+    private void retryOrFail(RefundJob job, Exception e, boolean retryable) {
+        job.setMessage(e.getMessage());
+        if (retryable && job.getAttempts() < maxAttempts) {
+            long delaySeconds = Math.min(600, 5L << job.getAttempts());
+            job.setNextAttemptAt(LocalDateTime.now().plusSeconds(delaySeconds));
+            job.setStatus(RefundJob.Status.PENDING);
+            logger.warn("Refund for order {} attempt {} failed, retrying in {}s: {}",
+                    job.getOrderId(), job.getAttempts(), delaySeconds, e.getMessage());
+        } else {
+            job.setStatus(RefundJob.Status.FAILED);
+            logger.error("Refund for order {} failed after {} attempts: {}", job.getOrderId(), job.getAttempts(), e.getMessage());
+        }
+        save(job);
+    }
+
+    // Returns the orders whose refund was given up on
+    private List<Long> failExhaustedStale(LocalDateTime staleBefore, LocalDateTime now) {
+        List<Long> orderIds = refundJobRepository.findExhaustedStaleOrderIds(RefundJob.Status.PROCESSING, staleBefore, maxAttempts);
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
+        refundJobRepository.failExhaustedStale(RefundJob.Status.PROCESSING, RefundJob.Status.FAILED, staleBefore, maxAttempts,
+                "Stalled in processing after " + maxAttempts + " attempts", now);
+        orderIds.forEach(orderId -> orderRepository.updateRefundStatus(orderId, RefundJob.Status.FAILED.name()));
+        return orderIds;
+    }
+
+    // Only hands the pass to its own thread; the shared scheduler thread must not wait on the payment provider
+    @Scheduled(fixedDelayString = "${refund.reconcile-ms:300000}")
+    public void scheduledReconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            logger.info("Refund reconciliation already running");
+            return;
+        }
+        try {
+            reconciler.execute(() -> {
+                try {
+                    reconcile();
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reconciling.set(false);
+        }
+    }
+
+    // Pages through refunds the provider accepted but had not settled, and records their outcome. A refund that
+    // cannot be checked right now is skipped until the next pass; one the provider rejects outright is marked
+    // FAILED so it shows up for manual follow-up instead of being retried forever.
+    public void reconcile() {
+        long afterId = 0;
+        int checked = 0;
+        int settled = 0;
+        int skipped = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<RefundJob> page;
+            try {
+                page = refundJobRepository.findPageByStatus(RefundJob.Status.SUBMITTED, afterId,
+                        PageRequest.of(0, RECONCILE_PAGE_SIZE));
+            } catch (Exception e) {
+                logger.error("Refund reconciliation failed: {}", e.getMessage(), e);
+                break;
+            }
+            for (RefundJob job : page) {
+                afterId = job.getId();
+                try {
+                    RefundDetails refund = paymentGateway.retrieveRefund(job.getRefundId());
+                    checked++;
+                    apply(job, refund);
+                } catch (PaymentGatewayException e) {
+                    if (e.isRetryable()) {
+                        skipped++;
+                        logger.warn("Could not check refund {} for order {}, retrying next pass: {}",
+                                job.getRefundId(), job.getOrderId(), e.getMessage());
+                        continue;
+                    }
+                    job.setStatus(RefundJob.Status.FAILED);
+                    job.setMessage("Refund " + job.getRefundId() + " needs attention: " + e.getMessage());
+                    logger.error("Refund {} for order {} needs attention: {}", job.getRefundId(), job.getOrderId(), e.getMessage());
+                }
+                if (job.getStatus() == RefundJob.Status.SUBMITTED) {
+                    continue;
+                }
+                try {
+                    save(job);
+                    settled++;
+                } catch (Exception e) {
+                    skipped++;
+                    logger.error("Could not record refund {} for order {}: {}", job.getRefundId(), job.getOrderId(), e.getMessage(), e);
+                }
+            }
+            if (page.size() < RECONCILE_PAGE_SIZE) {
+                break;
+            }
+        }
+        if (checked > 0 || skipped > 0) {
+            logger.info("Refund reconciliation checked {} pending refunds, {} settled, {} skipped", checked, settled, skipped);
+        }
+    }
+
+    private void apply(RefundJob job, RefundDetails refund) {
+        String status = refund.getStatus();
+        if ("succeeded".equals(status)) {
+            job.setStatus(RefundJob.Status.SUCCEEDED);
+        } else if ("failed".equals(status) || "canceled".equals(status)) {
+            job.setStatus(RefundJob.Status.FAILED);
+            job.setMessage("Refund " + refund.getId() + " " + status);
+            logger.error("Refund {} for order {} {}", refund.getId(), job.getOrderId(), status);
+        } else {
+            job.setStatus(RefundJob.Status.SUBMITTED);
+        }
+    }
+
+    private void save(RefundJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            refundJobRepository.save(job);
+            orderRepository.updateRefundStatus(job.getOrderId(), job.getStatus().name());
+        });
+    }
+}
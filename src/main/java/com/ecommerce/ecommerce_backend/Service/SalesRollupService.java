@@ -0,0 +1,196 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderStatus;
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.RollupGranularity;
+import com.ecommerce.ecommerce_backend.entity.SalesRollup;
+import com.ecommerce.ecommerce_backend.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps sales_rollup up to date one order at a time: an order becoming PAID adds its lines to the hourly and
+// daily buckets, leaving PAID subtracts them again. Analytics reads only these rows, never the order tables.
+@Service
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO sales_rollup (granularity, bucket_start, category, product_id, revenue, units, orders, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units), " +
+            "orders = orders + VALUES(orders), updated_at = NOW()";
+
+    private static final String HOUR_BUCKET = "TIMESTAMP(DATE(o.order_date), MAKETIME(HOUR(o.order_date), 0, 0))";
+    private static final String DAY_BUCKET = "TIMESTAMP(DATE(o.order_date))";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO sales_rollup (granularity, bucket_start, category, product_id, revenue, units, orders, updated_at) " +
+            "SELECT ?, %s, %s, %s, SUM(i.price * i.quantity), SUM(i.quantity), COUNT(DISTINCT o.id), NOW() " +
+            "FROM customer_order o JOIN order_items i ON i.order_id = o.id JOIN product p ON p.id = i.product_id " +
+            "WHERE o.status = ? AND o.order_date >= ? AND o.order_date < ? " +
+            "GROUP BY 2, 3, 4";
+
+    private static final String CATEGORY_COLUMN = "COALESCE(p.category, '" + SalesRollup.UNCATEGORIZED + "')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.reconcile.days:3}")
+    private int reconcileDays;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate, SalesRollupRepository rollupRepository,
+                              TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Async("analyticsExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        int sign;
+        if (event.becamePaid()) {
+            sign = 1;
+        } else if (event.leftPaid()) {
+            sign = -1;
+        } else {
+            return;
+        }
+        if (event.getOrderDate() == null || event.getLines().isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            batch.addAll(toUpserts(granularity, event, sign));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        logger.debug("Applied {} rollup deltas for order {} ({} -> {})",
+                batch.size(), event.getOrderId(), event.getPreviousStatus(), event.getNewStatus());
+    }
+
+    // One row per product, per category and for the whole bucket; an order counts once at every level it touches
+    private List<Object[]> toUpserts(RollupGranularity granularity, OrderStatusChangedEvent event, int sign) {
+        Timestamp bucket = Timestamp.valueOf(granularity.bucketStart(event.getOrderDate()));
+        Map<String, Object[]> rows = new LinkedHashMap<>();
+        for (OrderStatusChangedEvent.Line line : event.getLines()) {
+            String category = line.getCategory() != null ? line.getCategory() : SalesRollup.UNCATEGORIZED;
+            double revenue = sign * line.getPrice() * line.getQuantity();
+            int units = sign * line.getQuantity();
+
+            accumulate(rows, granularity, bucket, category, line.getProductId(), revenue, units, sign);
+            accumulate(rows, granularity, bucket, category, SalesRollup.NO_PRODUCT, revenue, units, sign);
+            accumulate(rows, granularity, bucket, SalesRollup.ALL_CATEGORIES, SalesRollup.NO_PRODUCT, revenue, units, sign);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private void accumulate(Map<String, Object[]> rows, RollupGranularity granularity, Timestamp bucket,
+                            String category, long productId, double revenue, int units, int orders) {
+        Object[] row = rows.get(category + '|' + productId);
+        if (row == null) {
+            rows.put(category + '|' + productId,
+                    new Object[]{granularity.name(), bucket, category, productId, revenue, (long) units, (long) orders});
+            return;
+        }
+        row[4] = (Double) row[4] + revenue;
+        row[5] = (Long) row[5] + units;
+    }
+
+    // Rebuilds the closed days of the window from the order tables, repairing dropped or failed incremental updates.
+    // Today's buckets are left to the incremental path so the two never count the same order.
+    @Scheduled(cron = "${analytics.reconcile.cron:0 30 2 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile(reconcileDays);
+        } catch (Exception e) {
+            logger.error("Sales rollup reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Delete and rebuild run in one transaction so readers never see a half-empty window
+    public int reconcile(int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Days must be at least 1");
+        }
+        LocalDateTime to = LocalDate.now().atStartOfDay();
+        LocalDateTime from = to.minusDays(days);
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        long started = System.currentTimeMillis();
+
+        int[] counts = transactionTemplate.execute(status -> {
+            int deleted = jdbcTemplate.update("DELETE FROM sales_rollup WHERE bucket_start >= ? AND bucket_start < ?", fromTs, toTs);
+            int inserted = 0;
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                String bucket = granularity == RollupGranularity.HOUR ? HOUR_BUCKET : DAY_BUCKET;
+                Object[] args = {granularity.name(), OrderStatus.PAID.getLabel(), fromTs, toTs};
+                inserted += jdbcTemplate.update(String.format(REBUILD_SQL, bucket, CATEGORY_COLUMN, "p.id"), args);
+                inserted += jdbcTemplate.update(String.format(REBUILD_SQL, bucket, CATEGORY_COLUMN, SalesRollup.NO_PRODUCT), args);
+                inserted += jdbcTemplate.update(String.format(REBUILD_SQL, bucket, "'" + SalesRollup.ALL_CATEGORIES + "'", SalesRollup.NO_PRODUCT), args);
+            }
+            return new int[]{deleted, inserted};
+        });
+        logger.info("Reconciled sales rollups from {} to {}: deleted {}, inserted {} rows in {} ms",
+                from, to, counts[0], counts[1], System.currentTimeMillis() - started);
+        return counts[1];
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesRollup> getSeries(RollupGranularity granularity, String level, LocalDateTime from, LocalDateTime to, String category) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return switch (level.toLowerCase()) {
+            case "total" -> rollupRepository.findTotals(granularity.name(), from, to);
+            case "category" -> rollupRepository.findByCategory(granularity.name(), from, to);
+            case "product" -> rollupRepository.findByProduct(granularity.name(), from, to, category);
+            default -> throw new IllegalArgumentException("Unsupported level: " + level);
+        };
+    }
+
+    // Range totals per category (or overall for level 'total'), summed from the daily buckets
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getSummary(String level, LocalDateTime from, LocalDateTime to) {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        for (SalesRollup rollup : getSeries(RollupGranularity.DAY, level, from, to, null)) {
+            String key = "product".equalsIgnoreCase(level) ? String.valueOf(rollup.getProductId()) : rollup.getCategory();
+            Map<String, Object> entry = summary.computeIfAbsent(key, k -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("category", rollup.getCategory());
+                if ("product".equalsIgnoreCase(level)) {
+                    row.put("productId", rollup.getProductId());
+                }
+                row.put("revenue", 0.0);
+                row.put("units", 0L);
+                row.put("orders", 0L);
+                return row;
+            });
+            entry.put("revenue", (Double) entry.get("revenue") + rollup.getRevenue());
+            entry.put("units", (Long) entry.get("units") + rollup.getUnits());
+            entry.put("orders", (Long) entry.get("orders") + rollup.getOrders());
+        }
+        return new ArrayList<>(summary.values());
+    }
+}
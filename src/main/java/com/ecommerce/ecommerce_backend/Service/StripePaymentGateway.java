@@ -0,0 +1,184 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.PaymentIntentDetails;
+import com.ecommerce.ecommerce_backend.entity.RefundDetails;
+import com.ecommerce.ecommerce_backend.util.CircuitBreaker;
+import com.ecommerce.ecommerce_backend.util.OperationMetrics;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stripe-backed gateway. Every call carries its own API key, timeouts and retry budget instead of relying on the
+// library's static configuration, and goes through a circuit breaker so a degraded Stripe fails fast rather than
+// tying up checkout threads.
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentGateway implements PaymentGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripePaymentGateway.class);
+
+    @FunctionalInterface
+    private interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+
+    @Value("${stripe.secret.key}")
+    private String stripeSecretKey;
+
+    @Value("${payment.stripe.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${payment.stripe.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${payment.stripe.max-network-retries:1}")
+    private int maxNetworkRetries;
+
+    @Value("${payment.stripe.max-idle-connections:32}")
+    private int maxIdleConnections;
+
+    private final CircuitBreaker circuitBreaker;
+    private final OperationMetrics metrics = new OperationMetrics();
+
+    public StripePaymentGateway(@Value("${payment.breaker.window-size:20}") int windowSize,
+                                @Value("${payment.breaker.minimum-calls:10}") int minimumCalls,
+                                @Value("${payment.breaker.failure-rate-percent:50}") int failureRatePercent,
+                                @Value("${payment.breaker.open-ms:30000}") long openMs) {
+        this.circuitBreaker = new CircuitBreaker("stripe", windowSize, minimumCalls, failureRatePercent, openMs);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (stripeSecretKey == null || stripeSecretKey.trim().isEmpty()) {
+            throw new IllegalStateException("Stripe API key is not configured in application.properties");
+        }
+        // Stripe's default client sits on HttpURLConnection, whose keep-alive cache holds only 5 idle
+        // connections per host unless told otherwise
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", String.valueOf(maxIdleConnections));
+        }
+        logger.info("Stripe gateway ready (connect timeout {} ms, read timeout {} ms, {} network retries)",
+                connectTimeoutMs, readTimeoutMs, maxNetworkRetries);
+    }
+
+    @Override
+    public PaymentIntentDetails createPaymentIntent(long amount, String currency, String idempotencyKey) throws PaymentGatewayException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("amount", amount);
+        params.put("currency", currency);
+        params.put("payment_method_types", new String[]{"card"});
+        return toDetails(call("create", () -> PaymentIntent.create(params, options(idempotencyKey))));
+    }
+
+    @Override
+    public PaymentIntentDetails retrievePaymentIntent(String paymentIntentId) throws PaymentGatewayException {
+        return toDetails(call("retrieve", () -> PaymentIntent.retrieve(paymentIntentId, options(null))));
+    }
+
+    @Override
+    public PaymentIntentDetails updatePaymentIntent(String paymentIntentId, long amount, String currency) throws PaymentGatewayException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("amount", amount);
+        params.put("currency", currency);
+        return toDetails(call("update", () -> {
+            RequestOptions options = options(null);
+            return PaymentIntent.retrieve(paymentIntentId, options).update(params, options);
+        }));
+    }
+
+    @Override
+    public void cancelPaymentIntent(String paymentIntentId) throws PaymentGatewayException {
+        call("cancel", () -> {
+            RequestOptions options = options(null);
+            return PaymentIntent.retrieve(paymentIntentId, options).cancel(new HashMap<>(), options);
+        });
+    }
+
+    @Override
+    public RefundDetails refund(String paymentIntentId, long amount, String idempotencyKey) throws PaymentGatewayException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("payment_intent", paymentIntentId);
+        params.put("amount", amount);
+        return toDetails(call("refund", () -> Refund.create(params, options(idempotencyKey))));
+    }
+
+    @Override
+    public RefundDetails retrieveRefund(String refundId) throws PaymentGatewayException {
+        return toDetails(call("retrieveRefund", () -> Refund.retrieve(refundId, options(null))));
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("provider", "stripe");
+        snapshot.put("circuit", circuitBreaker.getState());
+        snapshot.put("operations", metrics.snapshot());
+        return snapshot;
+    }
+
+    private RequestOptions options(String idempotencyKey) {
+        RequestOptions.RequestOptionsBuilder builder = RequestOptions.builder()
+                .setApiKey(stripeSecretKey)
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs)
+                .setMaxNetworkRetries(maxNetworkRetries);
+        if (idempotencyKey != null) {
+            builder.setIdempotencyKey(idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private <T> T call(String operation, StripeCall<T> call) throws PaymentGatewayException {
+        if (!circuitBreaker.tryAcquire()) {
+            metrics.rejected(operation);
+            throw new PaymentGatewayException("Payment provider temporarily unavailable", PaymentGatewayException.CIRCUIT_OPEN, true);
+        }
+        long started = System.currentTimeMillis();
+        try {
+            T result = call.execute();
+            circuitBreaker.onSuccess();
+            metrics.record(operation, System.currentTimeMillis() - started, true);
+            return result;
+        } catch (StripeException e) {
+            boolean providerFault = isProviderFault(e);
+            if (providerFault) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            metrics.record(operation, System.currentTimeMillis() - started, false);
+            logger.warn("Stripe {} failed (status {}, request {}): {}", operation, e.getStatusCode(), e.getRequestId(), e.getMessage());
+            throw new PaymentGatewayException(e.getMessage(), e.getCode(), providerFault, e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            metrics.record(operation, System.currentTimeMillis() - started, false);
+            throw e;
+        }
+    }
+
+    // Outages, timeouts and rate limiting count against the breaker; card declines and bad requests do not
+    private boolean isProviderFault(StripeException e) {
+        Integer status = e.getStatusCode();
+        return status == null || status >= 500 || status == 429;
+    }
+
+    private PaymentIntentDetails toDetails(PaymentIntent paymentIntent) {
+        return new PaymentIntentDetails(paymentIntent.getId(), paymentIntent.getStatus(), paymentIntent.getClientSecret(),
+                paymentIntent.getAmount(), paymentIntent.getCurrency());
+    }
+
+    private RefundDetails toDetails(Refund refund) {
+        return new RefundDetails(refund.getId(), refund.getStatus(), refund.getAmount());
+    }
+}
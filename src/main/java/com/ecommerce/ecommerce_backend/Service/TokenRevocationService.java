@@ -0,0 +1,207 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.TokenRevocation;
+import com.ecommerce.ecommerce_backend.repository.TokenRevocationRepository;
+import com.ecommerce.ecommerce_backend.util.BloomFilter;
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revoked tokens. The token_revocation table is the source of truth; every node mirrors the live rows in memory
+// behind a Bloom filter, so the usual not-revoked answer costs a few bit probes and no query. Rows written by
+// other nodes arrive by polling for rows created since the last poll, with an overlap to cover late commits.
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int PAGE_SIZE = 1000;
+    private static final String TOKEN_PREFIX = "jti:";
+    private static final String SUBJECT_PREFIX = "sub:";
+
+    private final TokenRevocationRepository revocationRepository;
+    private final JwtUtil jwtUtil;
+
+    // jti -> expiry, username -> revoke tokens issued at or before (both epoch millis)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastPoll;
+
+    @Value("${jwt.revocation.poll-overlap-ms:10000}")
+    private long pollOverlapMs;
+
+    public TokenRevocationService(TokenRevocationRepository revocationRepository, JwtUtil jwtUtil,
+                                  @Value("${jwt.revocation.expected-entries:100000}") int expectedEntries,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revocationRepository = revocationRepository;
+        this.jwtUtil = jwtUtil;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        BloomFilter current = filter;
+        String tokenId = token.getTokenId();
+        if (tokenId != null && current.mightContain(TOKEN_PREFIX + tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (current.mightContain(SUBJECT_PREFIX + token.getSubject())) {
+            Long revokedAt = revokedSubjects.get(token.getSubject());
+            // Tokens without iat predate this feature and cannot be told apart, so they go too. Tokens with only a
+            // second-precision iat go if issued in the revocation's second; new tokens carry milliseconds.
+            return revokedAt != null
+                    && (token.getIssuedAt() == null || token.getIssuedAt().toEpochMilli() <= revokedAt);
+        }
+        return false;
+    }
+
+    @Transactional
+    public void revokeToken(VerifiedToken token) {
+        if (token.getTokenId() == null) {
+            return;
+        }
+        TokenRevocation revocation = revocationRepository.save(new TokenRevocation(TokenRevocation.Type.TOKEN,
+                token.getTokenId(), null, LocalDateTime.ofInstant(token.getExpiresAt(), ZoneId.systemDefault())));
+        apply(revocation);
+        logger.info("Revoked token {} of {}", token.getTokenId(), token.getSubject());
+    }
+
+    // Revokes every token of the user issued up to now, e.g. logout everywhere or a password change. Tokens issued
+    // afterwards, such as the ones from logging in again, stay valid.
+    @Transactional
+    public void revokeSubject(String username) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(jwtUtil.getMaxTokenLifetimeMillis()));
+        long revokedAt = Instant.now().toEpochMilli();
+        TokenRevocation revocation = revocationRepository.save(
+                new TokenRevocation(TokenRevocation.Type.SUBJECT, username, revokedAt, expiresAt));
+        apply(revocation);
+        logger.info("Revoked all tokens of {}", username);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = 0;
+        Long afterId = 0L;
+        List<TokenRevocation> page;
+        do {
+            page = revocationRepository.findLivePage(now, afterId, PageRequest.of(0, PAGE_SIZE));
+            page.forEach(this::remember);
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        lastPoll = now;
+        rebuildFilter();
+        logger.info("Loaded {} token revocations", loaded);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-ms:5000}")
+    public void pollChanges() {
+        if (lastPoll == null) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = lastPoll.minus(Duration.ofMillis(pollOverlapMs));
+            List<TokenRevocation> page;
+            do {
+                page = revocationRepository.findCreatedSince(since, now, PageRequest.of(0, PAGE_SIZE));
+                page.forEach(this::apply);
+                LocalDateTime last = page.isEmpty() ? since : page.get(page.size() - 1).getCreatedAt();
+                if (!last.isAfter(since)) {
+                    break;
+                }
+                since = last;
+            } while (page.size() == PAGE_SIZE);
+            lastPoll = now;
+        } catch (Exception e) {
+            logger.error("Token revocation poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Drops revocations whose tokens have expired and rebuilds the filter, which cannot forget keys on its own
+    @Scheduled(fixedDelayString = "${jwt.revocation.compact-ms:3600000}")
+    public void compact() {
+        long nowMillis = System.currentTimeMillis();
+        long maxLifetimeMillis = jwtUtil.getMaxTokenLifetimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        revokedSubjects.values().removeIf(revokedAt -> revokedAt + maxLifetimeMillis <= nowMillis);
+        rebuildFilter();
+        try {
+            int deleted = revocationRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.info("Deleted {} expired token revocations", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Token revocation cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        BloomFilter current = filter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedSubjects", revokedSubjects.size());
+        stats.put("filterCapacity", current.getExpectedInsertions());
+        stats.put("filterBits", current.getBitCount());
+        stats.put("filterHashes", current.getHashCount());
+        stats.put("lastPoll", lastPoll);
+        return stats;
+    }
+
+    // Map first, filter second: a reader that passes the filter must find the entry
+    private void apply(TokenRevocation revocation) {
+        remember(revocation);
+        BloomFilter current = filter;
+        current.put(filterKey(revocation));
+        if (revokedTokens.size() + revokedSubjects.size() > current.getExpectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+
+    private void remember(TokenRevocation revocation) {
+        if (revocation.getType() == TokenRevocation.Type.TOKEN) {
+            long expiresAt = revocation.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            revokedTokens.put(revocation.getTarget(), expiresAt);
+        } else {
+            revokedSubjects.merge(revocation.getTarget(), revocation.getRevokedAt(), Math::max);
+        }
+    }
+
+    private synchronized void rebuildFilter() {
+        int entries = revokedTokens.size() + revokedSubjects.size();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, entries * 2), falsePositiveRate);
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_PREFIX + tokenId));
+        revokedSubjects.keySet().forEach(subject -> rebuilt.put(SUBJECT_PREFIX + subject));
+        filter = rebuilt;
+        // Revocations applied while copying may have gone into the old filter only
+        revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_PREFIX + tokenId));
+        revokedSubjects.keySet().forEach(subject -> rebuilt.put(SUBJECT_PREFIX + subject));
+    }
+
+    private static String filterKey(TokenRevocation revocation) {
+        return (revocation.getType() == TokenRevocation.Type.TOKEN ? TOKEN_PREFIX : SUBJECT_PREFIX) + revocation.getTarget();
+    }
+}
@@ -0,0 +1,200 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.OrderStatusChangedEvent;
+import com.ecommerce.ecommerce_backend.entity.Product;
+import com.ecommerce.ecommerce_backend.entity.TrendingProduct;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.util.SpaceSavingSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory "trending now" leaderboards. Each window is a ring of time buckets, each bucket a bounded Space-Saving
+// sketch, so memory is fixed no matter how many products or events there are. A background refresh merges the live
+// buckets and publishes an immutable snapshot; requests only read that snapshot.
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    public enum Metric {
+        SALES, VIEWS;
+
+        public static Metric from(String value) {
+            for (Metric metric : values()) {
+                if (metric.name().equalsIgnoreCase(value)) {
+                    return metric;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported metric: " + value);
+        }
+    }
+
+    public enum Window {
+        HOUR(Duration.ofMinutes(5), 12),
+        DAY(Duration.ofHours(1), 24),
+        WEEK(Duration.ofHours(6), 28);
+
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(Duration bucket, int buckets) {
+            this.bucketMillis = bucket.toMillis();
+            this.buckets = buckets;
+        }
+
+        public static Window from(String value) {
+            for (Window window : values()) {
+                if (window.name().equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported window: " + value);
+        }
+    }
+
+    private static class SlidingWindow {
+        private final Window window;
+        private final int capacity;
+        private final SpaceSavingSketch<Long>[] buckets;
+        private final long[] bucketEpochs;
+
+        SlidingWindow(Window window, int capacity) {
+            this.window = window;
+            this.capacity = capacity;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            SpaceSavingSketch<Long>[] ring = new SpaceSavingSketch[window.buckets];
+            this.buckets = ring;
+            this.bucketEpochs = new long[window.buckets];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new SpaceSavingSketch<>(capacity);
+                bucketEpochs[i] = -1;
+            }
+        }
+
+        synchronized void record(Long productId, long weight, long now) {
+            long epoch = now / window.bucketMillis;
+            int slot = (int) (epoch % buckets.length);
+            if (bucketEpochs[slot] != epoch) {
+                buckets[slot].clear();
+                bucketEpochs[slot] = epoch;
+            }
+            buckets[slot].offer(productId, weight);
+        }
+
+        synchronized SpaceSavingSketch<Long> merged(long now) {
+            long currentEpoch = now / window.bucketMillis;
+            SpaceSavingSketch<Long> merged = new SpaceSavingSketch<>(capacity);
+            for (int i = 0; i < buckets.length; i++) {
+                if (bucketEpochs[i] > currentEpoch - buckets.length) {
+                    merged.merge(buckets[i]);
+                }
+            }
+            return merged;
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final int topK;
+    private final Map<Metric, Map<Window, SlidingWindow>> windows = new EnumMap<>(Metric.class);
+
+    private volatile Map<Metric, Map<Window, List<TrendingProduct>>> snapshot = Map.of();
+
+    public TrendingService(ProductRepository productRepository,
+                           @Value("${trending.sketch-capacity:200}") int sketchCapacity,
+                           @Value("${trending.top-k:20}") int topK) {
+        this.productRepository = productRepository;
+        this.topK = topK;
+        for (Metric metric : Metric.values()) {
+            Map<Window, SlidingWindow> byWindow = new EnumMap<>(Window.class);
+            for (Window window : Window.values()) {
+                byWindow.put(window, new SlidingWindow(window, sketchCapacity));
+            }
+            windows.put(metric, byWindow);
+        }
+    }
+
+    public void recordView(Long productId) {
+        record(Metric.VIEWS, productId, 1);
+    }
+
+    @Async("analyticsExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!event.becamePaid()) {
+            return;
+        }
+        for (OrderStatusChangedEvent.Line line : event.getLines()) {
+            record(Metric.SALES, line.getProductId(), line.getQuantity());
+        }
+    }
+
+    private void record(Metric metric, Long productId, long weight) {
+        if (productId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (SlidingWindow window : windows.get(metric).values()) {
+            window.record(productId, weight, now);
+        }
+    }
+
+    public List<TrendingProduct> getTrending(Metric metric, Window window, int limit) {
+        List<TrendingProduct> products = snapshot.getOrDefault(metric, Map.of()).getOrDefault(window, List.of());
+        int size = Math.max(0, Math.min(limit, products.size()));
+        return products.subList(0, size);
+    }
+
+    @Scheduled(fixedDelayString = "${trending.refresh-ms:10000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<Metric, Map<Window, List<SpaceSavingSketch.Entry<Long>>>> tops = new EnumMap<>(Metric.class);
+        Set<Long> productIds = new HashSet<>();
+        for (Map.Entry<Metric, Map<Window, SlidingWindow>> metric : windows.entrySet()) {
+            Map<Window, List<SpaceSavingSketch.Entry<Long>>> byWindow = new EnumMap<>(Window.class);
+            for (Map.Entry<Window, SlidingWindow> window : metric.getValue().entrySet()) {
+                List<SpaceSavingSketch.Entry<Long>> top = window.getValue().merged(now).top(topK);
+                top.forEach(entry -> productIds.add(entry.getKey()));
+                byWindow.put(window.getKey(), top);
+            }
+            tops.put(metric.getKey(), byWindow);
+        }
+
+        Map<Long, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+        }
+
+        Map<Metric, Map<Window, List<TrendingProduct>>> next = new EnumMap<>(Metric.class);
+        tops.forEach((metric, byWindow) -> {
+            Map<Window, List<TrendingProduct>> lists = new EnumMap<>(Window.class);
+            byWindow.forEach((window, top) -> {
+                List<TrendingProduct> trending = new ArrayList<>(top.size());
+                for (SpaceSavingSketch.Entry<Long> entry : top) {
+                    Product product = products.get(entry.getKey());
+                    if (product != null) {
+                        trending.add(new TrendingProduct(product, entry.getCount()));
+                    }
+                }
+                lists.put(window, List.copyOf(trending));
+            });
+            next.put(metric, lists);
+        });
+        snapshot = next;
+        logger.debug("Refreshed trending snapshot for {} products in {} ms", products.size(), System.currentTimeMillis() - now);
+    }
+}
@@ -1,28 +1,57 @@
 package com.ecommerce.ecommerce_backend.Service;
 
+import com.ecommerce.ecommerce_backend.entity.AccountIdentity;
 import com.ecommerce.ecommerce_backend.entity.User;
 import com.ecommerce.ecommerce_backend.entity.Admin;
+import com.ecommerce.ecommerce_backend.entity.Identity;
+import com.ecommerce.ecommerce_backend.repository.AccountIdentityRepository;
 import com.ecommerce.ecommerce_backend.repository.UserRepository;
 import com.ecommerce.ecommerce_backend.repository.AdminRepository;
+import com.ecommerce.ecommerce_backend.util.UniqueUsernames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private static final String ROLE_PREFIX = "ROLE_";
-    private static final Set<String> USER_ROLE = Set.of("USER");
+    private static final int USERNAME_ATTEMPTS = 5;
+
+    public static class OAuth2Account {
+        private final User user;
+        private final boolean created;
+
+        OAuth2Account(User user, boolean created) {
+            this.user = user;
+            this.created = created;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+    }
 
     @Autowired
     private UserRepository userRepository;
@@ -30,6 +59,18 @@ public class UserService implements UserDetailsService {
     @Autowired
     private AdminRepository adminRepository;
 
+    @Autowired
+    private AccountIdentityRepository accountIdentityRepository;
+
+    @Autowired
+    private IdentityService identityService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         if (username == null || username.trim().isEmpty()) {
@@ -39,48 +80,106 @@ public class UserService implements UserDetailsService {
 
         logger.debug("Loading user by username: {}", username);
 
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            logger.debug("Found User: {}", user.getUsername());
-            return new org.springframework.security.core.userdetails.User(
-                    user.getUsername(),
-                    user.getPassword(),
-                    USER_ROLE.stream()
-                            .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
-                            .collect(Collectors.toList())
-            );
-        }
-
-        Optional<Admin> adminOpt = adminRepository.findByUsername(username);
-        if (adminOpt.isPresent()) {
-            Admin admin = adminOpt.get();
-            logger.debug("Found Admin: {}, roles: {}", admin.getUsername(), admin.getRoles());
-            return new org.springframework.security.core.userdetails.User(
-                    admin.getUsername(),
-                    admin.getPassword(),
-                    admin.getRoles().stream()
-                            .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
-                            .collect(Collectors.toList())
-            );
-        }
-
-        logger.warn("User not found with username: {}", username);
-        throw new UsernameNotFoundException("User not found with username: " + username);
+        Identity identity = identityService.findByUsername(username).orElseThrow(() -> {
+            logger.warn("User not found with username: {}", username);
+            return new UsernameNotFoundException("User not found with username: " + username);
+        });
+        logger.debug("Found {}: {}, roles: {}", identity.getKind(), identity.getUsername(), identity.getRoles());
+        return new org.springframework.security.core.userdetails.User(
+                identity.getUsername(),
+                identity.getPassword(),
+                identity.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                        .collect(Collectors.toList())
+        );
     }
 
+    // Called by the authentication provider after a successful login whose stored hash is weaker than the configured
+    // BCrypt strength; newPassword is already encoded with the current settings
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Identity identity = identityService.findByUsername(user.getUsername()).orElse(null);
+        if (identity == null) {
+            return user;
+        }
+        if (identity.isAdmin()) {
+            adminRepository.updatePassword(identity.getId(), newPassword);
+        } else {
+            userRepository.updatePassword(identity.getId(), newPassword);
+        }
+        identityService.invalidate(identity.getUsername());
+        logger.info("Rehashed password of {} with the current work factor", identity.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    // Uniqueness is left to the account_identity constraints: a taken username or email surfaces as a
+    // DuplicateAccountException instead of being checked beforehand
+    @Transactional
     public User registerUser(User user) {
         validateUser(user);
         logger.debug("Registering user: {}", user.getUsername());
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            accountIdentityRepository.save(new AccountIdentity(Identity.Kind.USER, user.getUsername(), user.getEmail()));
+            savedUser = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw toDuplicateAccount(e);
+        }
         logger.info("User registered successfully: {}", savedUser.getUsername());
         return savedUser;
     }
 
+    // The customer with this email, registering one with a generated username and random password if there is none.
+    // The free username is found with one query; if a concurrent sign-up takes it first, the unique constraint
+    // rejects the insert and the next free one is tried.
+    public OAuth2Account findOrRegisterOAuth2User(String email, String name) {
+        String normalizedEmail = email.toLowerCase();
+        Optional<User> existing = userRepository.findByEmail(normalizedEmail);
+        if (existing.isPresent()) {
+            return new OAuth2Account(existing.get(), false);
+        }
+
+        String base = UniqueUsernames.base(name, normalizedEmail);
+        String password = passwordEncoder.encode(UUID.randomUUID().toString());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int attempt = 1; ; attempt++) {
+            String username = UniqueUsernames.firstFree(base, userRepository.findUsernamesWithBase(base));
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(normalizedEmail);
+            user.setPassword(password);
+            try {
+                User savedUser = transactionTemplate.execute(status -> registerUser(user));
+                logger.info("Registered OAuth2 user {} with username {}", normalizedEmail, username);
+                return new OAuth2Account(savedUser, true);
+            } catch (DuplicateAccountException e) {
+                // Either the username was just taken, or the same person signed up concurrently. Read in a new
+                // transaction so a caller's snapshot cannot hide the other sign-up.
+                existing = transactionTemplate.execute(status -> userRepository.findByEmail(normalizedEmail));
+                if (existing.isPresent()) {
+                    return new OAuth2Account(existing.get(), false);
+                }
+                // An email held by an admin will not free up by retrying
+                if (e.getField() == DuplicateAccountException.Field.EMAIL || attempt == USERNAME_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Username {} was taken concurrently, retrying", username);
+            }
+        }
+    }
+
+    @Transactional
     public Admin registerAdmin(Admin admin) {
         validateAdmin(admin);
         logger.debug("Registering admin: {}", admin.getUsername());
-        Admin savedAdmin = adminRepository.save(admin);
+        Admin savedAdmin;
+        try {
+            accountIdentityRepository.save(new AccountIdentity(Identity.Kind.ADMIN, admin.getUsername(), admin.getEmail()));
+            savedAdmin = adminRepository.save(admin);
+        } catch (DataIntegrityViolationException e) {
+            throw toDuplicateAccount(e);
+        }
         logger.info("Admin registered successfully: {}", savedAdmin.getUsername());
         return savedAdmin;
     }
@@ -113,6 +212,18 @@ public class UserService implements UserDetailsService {
                 });
     }
 
+    // Violations of other constraints (a NOT NULL column, say) are passed on unchanged
+    static RuntimeException toDuplicateAccount(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains("uk_account_identity_email")) {
+            return new DuplicateAccountException(DuplicateAccountException.Field.EMAIL, e);
+        }
+        if (message.contains("uk_account_identity_username") || message.contains("uk_users_username")) {
+            return new DuplicateAccountException(DuplicateAccountException.Field.USERNAME, e);
+        }
+        return e;
+    }
+
     private void validateUser(User user) {
         if (user == null) {
             logger.error("User object is null");
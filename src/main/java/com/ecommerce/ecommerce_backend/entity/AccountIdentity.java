@@ -0,0 +1,53 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+// One row per customer or admin, claimed in the same transaction as the account itself. Usernames and emails are
+// unique across both account tables, which per-table constraints cannot express, so this table holds the
+// constraints and registration needs no existence checks.
+@Entity
+@Table(name = "account_identity", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_identity_username", columnNames = "username"),
+        @UniqueConstraint(name = "uk_account_identity_email", columnNames = "email")
+})
+public class AccountIdentity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private Identity.Kind kind;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "email")
+    private String email;
+
+    public AccountIdentity() {
+    }
+
+    public AccountIdentity(Identity.Kind kind, String username, String email) {
+        this.kind = kind;
+        this.username = username;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Identity.Kind getKind() {
+        return kind;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
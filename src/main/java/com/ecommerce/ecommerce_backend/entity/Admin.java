@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import java.util.Set;
 
 @Entity
-@Table(name = "admins")
+@Table(name = "admins", indexes = {
+        @Index(name = "idx_admins_username", columnList = "username")
+})
 public class Admin {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
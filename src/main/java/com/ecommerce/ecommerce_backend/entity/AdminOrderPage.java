@@ -0,0 +1,27 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.List;
+
+public class AdminOrderPage {
+    private final List<AdminOrderRow> orders;
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public AdminOrderPage(List<AdminOrderRow> orders, String nextCursor, boolean hasMore) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<AdminOrderRow> getOrders() {
+        return orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
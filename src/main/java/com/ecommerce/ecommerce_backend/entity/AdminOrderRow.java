@@ -0,0 +1,59 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.time.LocalDateTime;
+
+public class AdminOrderRow {
+    private final Long id;
+    private final LocalDateTime orderDate;
+    private final String status;
+    private final String shipmentStatus;
+    private final double total;
+    private final String paymentIntentId;
+    private final Long userId;
+    private final String userEmail;
+
+    // Used by criteria constructor selections
+    public AdminOrderRow(Long id, LocalDateTime orderDate, String status, String shipmentStatus, Double total,
+                         String paymentIntentId, Long userId, String userEmail) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.shipmentStatus = shipmentStatus;
+        this.total = total != null ? total : 0.0;
+        this.paymentIntentId = paymentIntentId;
+        this.userId = userId;
+        this.userEmail = userEmail;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getShipmentStatus() {
+        return shipmentStatus;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+}
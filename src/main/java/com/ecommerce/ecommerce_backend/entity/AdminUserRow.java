@@ -0,0 +1,31 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+public class AdminUserRow {
+    private final Long id;
+    private final String name;
+    private final String username;
+    private final String email;
+
+    public AdminUserRow(Long id, String name, String username, String email) {
+        this.id = id;
+        this.name = name;
+        this.username = username;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class BulkTransitionRequest {
+    @NotEmpty(message = "Order IDs must not be empty")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Current shipment status must not be null")
+    private String from;
+
+    @NotNull(message = "Target shipment status must not be null")
+    private String to;
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+}
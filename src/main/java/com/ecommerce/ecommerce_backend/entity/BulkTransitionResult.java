@@ -0,0 +1,27 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.List;
+
+public class BulkTransitionResult {
+    private final int requested;
+    private final int updated;
+    private final List<Long> conflicts;
+
+    public BulkTransitionResult(int requested, int updated, List<Long> conflicts) {
+        this.requested = requested;
+        this.updated = updated;
+        this.conflicts = conflicts;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public List<Long> getConflicts() {
+        return conflicts;
+    }
+}
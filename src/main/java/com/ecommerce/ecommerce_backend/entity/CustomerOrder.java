@@ -7,6 +7,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Table(name = "customer_order", indexes = {
+        @Index(name = "idx_customer_order_user_date", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_customer_order_status_date", columnList = "status, order_date, id"),
+        @Index(name = "idx_customer_order_shipment_date", columnList = "shipment_status, order_date, id"),
+        @Index(name = "idx_customer_order_date", columnList = "order_date, id"),
+        // One order per payment intent, however many checkouts race for it
+        @Index(name = "uk_customer_order_payment_intent", columnList = "payment_intent_id", unique = true)
+})
 public class CustomerOrder {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,7 +25,11 @@ public class CustomerOrder {
     private User user;
 
     private double total;
+
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
+
+    @Column(name = "status")
     private String status;
 
     @Column(name = "shipment_status")
@@ -30,8 +42,17 @@ public class CustomerOrder {
     @JsonManagedReference
     private List<OrderItem> items;
 
+    @Column(name = "payment_intent_id")
     private String paymentIntentId;
 
+    // Null until a cancellation has queued a refund; otherwise the name of the RefundJob status
+    @Column(name = "refund_status", length = 16)
+    private String refundStatus;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -104,4 +125,20 @@ public class CustomerOrder {
     public void setPaymentIntentId(String paymentIntentId) {
         this.paymentIntentId = paymentIntentId;
     }
+
+    public String getRefundStatus() {
+        return refundStatus;
+    }
+
+    public void setRefundStatus(String refundStatus) {
+        this.refundStatus = refundStatus;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
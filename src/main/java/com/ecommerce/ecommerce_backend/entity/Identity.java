@@ -0,0 +1,76 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.Set;
+
+// A username resolved to either a customer (users) or an admin (admins), with what authentication and the auth
+// endpoints need. Immutable, so one instance can be cached and shared.
+public final class Identity {
+
+    public enum Kind {
+        USER, ADMIN
+    }
+
+    private static final Set<String> USER_ROLES = Set.of("USER");
+
+    private final Kind kind;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String email;
+    private final String name;
+    private final Set<String> roles;
+
+    public Identity(Kind kind, Long id, String username, String password, String email, String name, Set<String> roles) {
+        this.kind = kind;
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.name = name;
+        this.roles = Set.copyOf(roles);
+    }
+
+    public static Identity of(User user) {
+        return new Identity(Kind.USER, user.getId(), user.getUsername(), user.getPassword(), user.getEmail(),
+                user.getName(), USER_ROLES);
+    }
+
+    public static Identity of(Admin admin) {
+        return new Identity(Kind.ADMIN, admin.getId(), admin.getUsername(), admin.getPassword(), admin.getEmail(),
+                null, admin.getRoles() != null ? admin.getRoles() : Set.of());
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isAdmin() {
+        return kind == Kind.ADMIN;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    // BCrypt hash
+    public String getPassword() {
+        return password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    // Customers only
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderDetail {
+    private Long id;
+    private Long userId;
+    private LocalDateTime orderDate;
+    private String status;
+    private String shipmentStatus;
+    private double total;
+    private String paymentIntentId;
+    private ShippingAddress shippingAddress;
+    private List<Line> items;
+
+    public static class Line {
+        private Long id;
+        private Long productId;
+        private String productName;
+        private String imageUrl;
+        private double price;
+        private int quantity;
+
+        public Line(Long id, Long productId, String productName, String imageUrl, double price, int quantity) {
+            this.id = id;
+            this.productId = productId;
+            this.productName = productName;
+            this.imageUrl = imageUrl;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    public static OrderDetail from(CustomerOrder order) {
+        OrderDetail detail = new OrderDetail();
+        detail.id = order.getId();
+        detail.userId = order.getUser() != null ? order.getUser().getId() : null;
+        detail.orderDate = order.getOrderDate();
+        detail.status = order.getStatus();
+        detail.shipmentStatus = order.getShipmentStatus();
+        detail.total = order.getTotal();
+        detail.paymentIntentId = order.getPaymentIntentId();
+        detail.shippingAddress = order.getShippingAddress();
+        detail.items = order.getItems() == null ? List.of() : order.getItems().stream()
+                .map(item -> new Line(
+                        item.getId(),
+                        item.getProduct().getId(),
+                        item.getProduct().getName(),
+                        item.getProduct().getImageUrl(),
+                        item.getPrice(),
+                        item.getQuantity()))
+                .toList();
+        return detail;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getShipmentStatus() {
+        return shipmentStatus;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public ShippingAddress getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public List<Line> getItems() {
+        return items;
+    }
+}
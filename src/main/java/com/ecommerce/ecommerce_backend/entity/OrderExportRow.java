@@ -0,0 +1,96 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.time.LocalDateTime;
+
+// One order line joined with its order header; item fields are null for orders without items
+public class OrderExportRow {
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+    private final String status;
+    private final String shipmentStatus;
+    private final Double total;
+    private final String paymentIntentId;
+    private final Long userId;
+    private final String userEmail;
+    private final Long itemId;
+    private final Long productId;
+    private final String productName;
+    private final String category;
+    private final Integer quantity;
+    private final Double price;
+
+    public OrderExportRow(Long orderId, LocalDateTime orderDate, String status, String shipmentStatus, Double total,
+                          String paymentIntentId, Long userId, String userEmail, Long itemId, Long productId,
+                          String productName, String category, Integer quantity, Double price) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.shipmentStatus = shipmentStatus;
+        this.total = total;
+        this.paymentIntentId = paymentIntentId;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.itemId = itemId;
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getShipmentStatus() {
+        return shipmentStatus;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+}
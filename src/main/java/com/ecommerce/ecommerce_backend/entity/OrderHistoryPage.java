@@ -0,0 +1,39 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.List;
+
+public class OrderHistoryPage {
+    private List<OrderSummary> orders;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public OrderHistoryPage(List<OrderSummary> orders, String nextCursor, boolean hasMore) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<OrderSummary> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderSummary> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Staging row for an accepted asynchronous checkout; the payload is the original CheckoutRequest as JSON
+@Entity
+@Table(name = "order_intake", indexes = {
+        @Index(name = "idx_order_intake_tracking_id", columnList = "tracking_id", unique = true),
+        @Index(name = "idx_order_intake_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_order_intake_payment_intent", columnList = "payment_intent_id"),
+        @Index(name = "uk_order_intake_open_payment_intent", columnList = "open_payment_intent_id", unique = true)
+})
+public class OrderIntake {
+
+    public enum Status {
+        QUEUED, PROCESSING, COMPLETED, FAILED;
+
+        public boolean isFinal() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tracking_id", nullable = false, length = 36)
+    private String trackingId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "payment_intent_id", nullable = false)
+    private String paymentIntentId;
+
+    // The payment intent while the intake is not FAILED, NULL after: at most one open intake per payment intent,
+    // while a failed one can be submitted again
+    @Column(name = "open_payment_intent_id")
+    private String openPaymentIntentId;
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    public OrderIntake() {
+    }
+
+    public OrderIntake(String trackingId, Long userId, String paymentIntentId, String payload) {
+        LocalDateTime now = LocalDateTime.now();
+        this.trackingId = trackingId;
+        this.userId = userId;
+        this.paymentIntentId = paymentIntentId;
+        this.openPaymentIntentId = paymentIntentId;
+        this.payload = payload;
+        this.status = Status.QUEUED;
+        this.createdAt = now;
+        this.updatedAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+        this.openPaymentIntentId = status == Status.FAILED ? null : paymentIntentId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
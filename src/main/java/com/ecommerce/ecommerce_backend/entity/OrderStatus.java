@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Payment-side lifecycle of a CustomerOrder. Labels match the strings already stored in customer_order.status.
+public enum OrderStatus {
+    PLACED("PLACED"),
+    PAID("PAID"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    OrderStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Set<OrderStatus> allowedTransitions() {
+        return switch (this) {
+            case PLACED -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(CANCELLED);
+            case CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return allowedTransitions().contains(target);
+    }
+
+    public static OrderStatus fromLabel(String value) {
+        if (value != null) {
+            for (OrderStatus status : values()) {
+                if (status.label.equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status: " + value);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Published by OrderStatusService after an order's payment status changes. Carries a snapshot of the order lines
+// so listeners never have to reload the order.
+public class OrderStatusChangedEvent {
+
+    public static class Line {
+        private final Long productId;
+        private final String category;
+        private final int quantity;
+        private final double price;
+
+        public Line(Long productId, String category, int quantity, double price) {
+            this.productId = productId;
+            this.category = category;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+    }
+
+    private final Long orderId;
+    private final Long userId;
+    private final LocalDateTime orderDate;
+    private final OrderStatus previousStatus;
+    private final OrderStatus newStatus;
+    private final List<Line> lines;
+
+    public OrderStatusChangedEvent(Long orderId, Long userId, LocalDateTime orderDate, OrderStatus previousStatus,
+                                   OrderStatus newStatus, List<Line> lines) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.orderDate = orderDate;
+        this.previousStatus = previousStatus;
+        this.newStatus = newStatus;
+        this.lines = lines;
+    }
+
+    public static OrderStatusChangedEvent of(CustomerOrder order, OrderStatus previousStatus) {
+        List<Line> lines = order.getItems() == null ? List.of() : order.getItems().stream()
+                .map(item -> new Line(item.getProduct().getId(), item.getProduct().getCategory(), item.getQuantity(), item.getPrice()))
+                .toList();
+        return new OrderStatusChangedEvent(
+                order.getId(),
+                order.getUser() != null ? order.getUser().getId() : null,
+                order.getOrderDate(),
+                previousStatus,
+                OrderStatus.fromLabel(order.getStatus()),
+                lines);
+    }
+
+    public boolean becamePaid() {
+        return newStatus == OrderStatus.PAID && previousStatus != OrderStatus.PAID;
+    }
+
+    public boolean leftPaid() {
+        return previousStatus == OrderStatus.PAID && newStatus != OrderStatus.PAID;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public OrderStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+}
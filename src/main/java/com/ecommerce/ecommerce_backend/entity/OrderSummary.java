@@ -0,0 +1,73 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.time.LocalDateTime;
+
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private String status;
+    private String shipmentStatus;
+    private double total;
+    private long itemCount;
+
+    public OrderSummary() {
+    }
+
+    // Used by JPQL constructor expressions
+    public OrderSummary(Long id, LocalDateTime orderDate, String status, String shipmentStatus, Double total, Long itemCount) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.shipmentStatus = shipmentStatus;
+        this.total = total != null ? total : 0.0;
+        this.itemCount = itemCount != null ? itemCount : 0L;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getShipmentStatus() {
+        return shipmentStatus;
+    }
+
+    public void setShipmentStatus(String shipmentStatus) {
+        this.shipmentStatus = shipmentStatus;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+// Provider-neutral view of a payment intent
+public class PaymentIntentDetails {
+    private final String id;
+    private final String status;
+    private final String clientSecret;
+    private final Long amount;
+    private final String currency;
+
+    public PaymentIntentDetails(String id, String status, String clientSecret, Long amount, String currency) {
+        this.id = id;
+        this.status = status;
+        this.clientSecret = clientSecret;
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    // Smallest currency unit (cents)
+    public Long getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public boolean isSucceeded() {
+        return "succeeded".equals(status);
+    }
+}
@@ -26,6 +26,10 @@ public class Product {
     @Column(name = "image_url")
     private String imageUrl;
 
+    // Units on hand; null means stock is not tracked for this product
+    @Column(name = "stock")
+    private Integer stock;
+
     // Default constructor
     public Product() {
     }
@@ -78,4 +82,12 @@ public class Product {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
 }
@@ -0,0 +1,113 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A chain of refresh tokens descending from one login. Only the newest token of the chain is valid and only its
+// SHA-256 is stored. Presenting an older one means the chain leaked, so the whole family is revoked; the one
+// exception is the token rotated away at rotatedAt, which stays usable for a short grace window.
+@Entity
+@Table(name = "refresh_token_family", indexes = {
+        @Index(name = "idx_refresh_token_family_family_id", columnList = "family_id", unique = true),
+        @Index(name = "idx_refresh_token_family_username", columnList = "username"),
+        @Index(name = "idx_refresh_token_family_expires_at", columnList = "expires_at")
+})
+public class RefreshTokenFamily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Comma-separated roles at login, used for the access tokens minted on refresh
+    @Column(name = "roles", nullable = false)
+    private String roles;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // Hash of the token replaced by the last rotation
+    @Column(name = "previous_token_hash", length = 64)
+    private String previousTokenHash;
+
+    @Column(name = "revoked", nullable = false)
+    private boolean revoked;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "rotated_at", nullable = false)
+    private LocalDateTime rotatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RefreshTokenFamily() {
+    }
+
+    public RefreshTokenFamily(String familyId, String username, Long userId, String roles, String tokenHash,
+                              LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        this.familyId = familyId;
+        this.username = username;
+        this.userId = userId;
+        this.roles = roles;
+        this.tokenHash = tokenHash;
+        this.createdAt = now;
+        this.rotatedAt = now;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRoles() {
+        return roles;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public String getPreviousTokenHash() {
+        return previousTokenHash;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+// Provider-neutral view of a refund
+public class RefundDetails {
+    private final String id;
+    private final String status;
+    private final Long amount;
+
+    public RefundDetails(String id, String status, Long amount) {
+        this.id = id;
+        this.status = status;
+        this.amount = amount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // succeeded, pending, requires_action, failed or canceled
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getAmount() {
+        return amount;
+    }
+}
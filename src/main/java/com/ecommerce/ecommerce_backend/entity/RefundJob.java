@@ -0,0 +1,142 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Refund owed for a cancelled order. One row per order; the row is the durable work item for the refund workers.
+@Entity
+@Table(name = "refund_job", indexes = {
+        @Index(name = "idx_refund_job_order_id", columnList = "order_id", unique = true),
+        @Index(name = "idx_refund_job_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class RefundJob {
+
+    public enum Status {
+        // PENDING: waiting for a worker, PROCESSING: being sent, SUBMITTED: accepted by the provider but not final
+        PENDING, PROCESSING, SUBMITTED, SUCCEEDED, FAILED;
+
+        public boolean isFinal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "payment_intent_id", nullable = false)
+    private String paymentIntentId;
+
+    // Smallest currency unit (cents)
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "refund_id")
+    private String refundId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "message", length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    public RefundJob() {
+    }
+
+    public RefundJob(Long orderId, String paymentIntentId, long amount) {
+        LocalDateTime now = LocalDateTime.now();
+        this.orderId = orderId;
+        this.paymentIntentId = paymentIntentId;
+        this.amount = amount;
+        this.status = Status.PENDING;
+        this.createdAt = now;
+        this.updatedAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    // Stable per order, so a retried refund can never be applied twice
+    public String getIdempotencyKey() {
+        return "refund-order-" + orderId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getRefundId() {
+        return refundId;
+    }
+
+    public void setRefundId(String refundId) {
+        this.refundId = refundId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
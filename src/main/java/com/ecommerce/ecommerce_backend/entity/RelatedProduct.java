@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+public class RelatedProduct {
+    private final Long productId;
+    private final String name;
+    private final double price;
+    private final String category;
+    private final String imageUrl;
+    private final long score;
+
+    public RelatedProduct(Product product, long score) {
+        this.productId = product.getId();
+        this.name = product.getName();
+        this.price = product.getPrice();
+        this.category = product.getCategory();
+        this.imageUrl = product.getImageUrl();
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    // Number of paid orders that contained both products (estimated)
+    public long getScore() {
+        return score;
+    }
+}
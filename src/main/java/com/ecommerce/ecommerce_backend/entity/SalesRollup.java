@@ -0,0 +1,81 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Pre-aggregated sales per time bucket. Three levels share the table:
+// product rows (productId > 0), category rows (productId = 0) and one total row per bucket (category = '*').
+@Entity
+@Table(name = "sales_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollup_bucket", columnNames = {"granularity", "bucket_start", "category", "product_id"})
+})
+public class SalesRollup {
+    public static final String ALL_CATEGORIES = "*";
+    public static final long NO_PRODUCT = 0L;
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "granularity", nullable = false, length = 8)
+    private String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "category", nullable = false)
+    private String category;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
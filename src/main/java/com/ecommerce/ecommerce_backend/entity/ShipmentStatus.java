@@ -0,0 +1,47 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Fulfilment lifecycle of a CustomerOrder. Labels match the strings already stored in customer_order.shipment_status.
+public enum ShipmentStatus {
+    PENDING("PENDING"),
+    PACKING("Packing"),
+    SHIPPED("Shipped"),
+    DELIVERED("Delivered"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    ShipmentStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Set<ShipmentStatus> allowedTransitions() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PACKING, CANCELLED);
+            case PACKING -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(DELIVERED);
+            case DELIVERED, CANCELLED -> EnumSet.noneOf(ShipmentStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(ShipmentStatus target) {
+        return allowedTransitions().contains(target);
+    }
+
+    public static ShipmentStatus fromLabel(String value) {
+        if (value != null) {
+            for (ShipmentStatus status : values()) {
+                if (status.label.equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                    return status;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown shipment status: " + value);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Units held for a payment intent between create-payment-intent and checkout
+@Entity
+@Table(name = "stock_reservation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservation_key_product", columnNames = {"reservation_key", "product_id"}),
+        indexes = {
+                @Index(name = "idx_stock_reservation_status_expiry", columnList = "status, expires_at"),
+                @Index(name = "idx_stock_reservation_product_status", columnList = "product_id, status"),
+                @Index(name = "idx_stock_reservation_applied_status", columnList = "stock_applied, status")
+        })
+public class StockReservation {
+
+    public enum Status {
+        HELD, COMMITTED, RELEASED, EXPIRED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_key", nullable = false)
+    private String reservationKey;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Whether a COMMITTED reservation has been subtracted from product.stock. New rows always write false; the
+    // column default only marks rows that existed before the column as applied.
+    @Column(name = "stock_applied", nullable = false, columnDefinition = "bit(1) default 1")
+    private boolean stockApplied;
+
+    public StockReservation() {
+    }
+
+    public StockReservation(String reservationKey, Long productId, int quantity, LocalDateTime expiresAt) {
+        this.reservationKey = reservationKey;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = Status.HELD;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getReservationKey() {
+        return reservationKey;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public boolean isStockApplied() {
+        return stockApplied;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Append-only revocation log. A TOKEN row kills one token by its jti; a SUBJECT row kills every token of that
+// username issued at or before revokedAt. Rows are only needed until the tokens they cover would have expired anyway.
+@Entity
+@Table(name = "token_revocation", indexes = {
+        @Index(name = "idx_token_revocation_created_at", columnList = "created_at"),
+        @Index(name = "idx_token_revocation_expires_at", columnList = "expires_at")
+})
+public class TokenRevocation {
+
+    public enum Type {
+        TOKEN, SUBJECT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 16)
+    private Type type;
+
+    // jti for TOKEN, username for SUBJECT
+    @Column(name = "target", nullable = false)
+    private String target;
+
+    // SUBJECT only: tokens issued at or before this epoch millisecond are revoked
+    @Column(name = "revoked_at_ms")
+    private Long revokedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public TokenRevocation() {
+    }
+
+    public TokenRevocation(Type type, String target, Long revokedAt, LocalDateTime expiresAt) {
+        this.type = type;
+        this.target = target;
+        this.revokedAt = revokedAt;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public Long getRevokedAt() {
+        return revokedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
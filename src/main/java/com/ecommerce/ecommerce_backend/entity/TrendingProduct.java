@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+public class TrendingProduct {
+    private final Long productId;
+    private final String name;
+    private final double price;
+    private final String category;
+    private final String imageUrl;
+    private final long score;
+
+    public TrendingProduct(Product product, long score) {
+        this.productId = product.getId();
+        this.name = product.getName();
+        this.price = product.getPrice();
+        this.category = product.getCategory();
+        this.imageUrl = product.getImageUrl();
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    // Estimated units sold or views within the window
+    public long getScore() {
+        return score;
+    }
+}
@@ -3,7 +3,11 @@ package com.ecommerce.ecommerce_backend.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_email", columnList = "email")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_username", columnNames = "username")
+})
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
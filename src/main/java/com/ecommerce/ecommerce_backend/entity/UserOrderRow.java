@@ -0,0 +1,58 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+public class UserOrderRow {
+    private final Long userId;
+    private final Long orderId;
+    private final String status;
+    private final String fullName;
+    private final String streetAddress;
+    private final String city;
+    private final String postalCode;
+
+    public UserOrderRow(Long userId, Long orderId, String status, String fullName,
+                        String streetAddress, String city, String postalCode) {
+        this.userId = userId;
+        this.orderId = orderId;
+        this.status = status;
+        this.fullName = fullName;
+        this.streetAddress = streetAddress;
+        this.city = city;
+        this.postalCode = postalCode;
+    }
+
+    public boolean hasShippingAddress() {
+        return fullName != null || streetAddress != null || city != null || postalCode != null;
+    }
+
+    public String formatShippingAddress() {
+        return fullName + ", " + streetAddress + ", " + city + ", " + postalCode;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getStreetAddress() {
+        return streetAddress;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.AccountIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface AccountIdentityRepository extends JpaRepository<AccountIdentity, Long> {
+
+    // Claims for accounts created before the table existed. Only rows that cannot violate a constraint are
+    // inserted: a username, an unclaimed username and email, and for a username or email shared by several
+    // legacy rows only the oldest. Everything else is left for findUnclaimed*, so this is safe to run on every start.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO account_identity (kind, username, email) " +
+            "SELECT 'USER', u.username, u.email FROM users u " +
+            "WHERE u.username IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM account_identity i WHERE i.username = u.username) " +
+            "AND (u.email IS NULL OR (NOT EXISTS (SELECT 1 FROM account_identity i WHERE i.email = u.email) " +
+            "AND NOT EXISTS (SELECT 1 FROM users o WHERE o.email = u.email AND o.id < u.id)))",
+            nativeQuery = true)
+    int backfillUsers();
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO account_identity (kind, username, email) " +
+            "SELECT 'ADMIN', a.username, a.email FROM admins a " +
+            "WHERE a.username IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM account_identity i WHERE i.username = a.username) " +
+            "AND NOT EXISTS (SELECT 1 FROM admins o WHERE o.username = a.username AND o.id < a.id) " +
+            "AND (a.email IS NULL OR (NOT EXISTS (SELECT 1 FROM account_identity i WHERE i.email = a.email) " +
+            "AND NOT EXISTS (SELECT 1 FROM admins o WHERE o.email = a.email AND o.id < a.id)))",
+            nativeQuery = true)
+    int backfillAdmins();
+
+    // Accounts still without a claim after the backfill: [id, username, email]
+    @Query(value = "SELECT u.id, u.username, u.email FROM users u " +
+            "WHERE u.username IS NULL OR NOT EXISTS (SELECT 1 FROM account_identity i " +
+            "WHERE i.kind = 'USER' AND i.username = u.username) ORDER BY u.id",
+            nativeQuery = true)
+    List<Object[]> findUnclaimedUsers();
+
+    @Query(value = "SELECT a.id, a.username, a.email FROM admins a " +
+            "WHERE a.username IS NULL OR NOT EXISTS (SELECT 1 FROM account_identity i " +
+            "WHERE i.kind = 'ADMIN' AND i.username = a.username) ORDER BY a.id",
+            nativeQuery = true)
+    List<Object[]> findUnclaimedAdmins();
+}
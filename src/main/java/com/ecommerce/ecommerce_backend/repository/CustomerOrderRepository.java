@@ -1,13 +1,24 @@
 package com.ecommerce.ecommerce_backend.repository;
 
 import com.ecommerce.ecommerce_backend.entity.CustomerOrder;
+import com.ecommerce.ecommerce_backend.entity.OrderExportRow;
+import com.ecommerce.ecommerce_backend.entity.OrderSummary;
 import com.ecommerce.ecommerce_backend.entity.User;
+import com.ecommerce.ecommerce_backend.entity.UserOrderRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Long> {
     List<CustomerOrder> findByUser(User user);
@@ -17,4 +28,85 @@ public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Lo
 
     Optional<CustomerOrder> findByPaymentIntentId(String paymentIntentId);
 
-}
\ No newline at end of file
+    // Serializes checkouts of the same payment intent inside the order transaction
+    @Query(value = "SELECT * FROM customer_order WHERE payment_intent_id = :paymentIntentId FOR UPDATE", nativeQuery = true)
+    Optional<CustomerOrder> findByPaymentIntentIdForUpdate(@Param("paymentIntentId") String paymentIntentId);
+
+    @Query("SELECT new com.ecommerce.ecommerce_backend.entity.OrderSummary(co.id, co.orderDate, co.status, co.shipmentStatus, co.total, COUNT(i.id)) " +
+            "FROM CustomerOrder co LEFT JOIN co.items i " +
+            "WHERE co.user.id = :userId " +
+            "GROUP BY co.id, co.orderDate, co.status, co.shipmentStatus, co.total " +
+            "ORDER BY co.orderDate DESC, co.id DESC")
+    List<OrderSummary> findOrderSummaries(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.ecommerce_backend.entity.OrderSummary(co.id, co.orderDate, co.status, co.shipmentStatus, co.total, COUNT(i.id)) " +
+            "FROM CustomerOrder co LEFT JOIN co.items i " +
+            "WHERE co.user.id = :userId " +
+            "AND (co.orderDate < :beforeDate OR (co.orderDate = :beforeDate AND co.id < :beforeId)) " +
+            "GROUP BY co.id, co.orderDate, co.status, co.shipmentStatus, co.total " +
+            "ORDER BY co.orderDate DESC, co.id DESC")
+    List<OrderSummary> findOrderSummariesBefore(@Param("userId") Long userId,
+                                                @Param("beforeDate") LocalDateTime beforeDate,
+                                                @Param("beforeId") Long beforeId,
+                                                Pageable pageable);
+
+    @Query("SELECT DISTINCT co FROM CustomerOrder co JOIN FETCH co.user " +
+            "LEFT JOIN FETCH co.items i LEFT JOIN FETCH i.product " +
+            "WHERE co.id = :orderId")
+    Optional<CustomerOrder> findDetailById(@Param("orderId") Long orderId);
+
+    @Query("SELECT new com.ecommerce.ecommerce_backend.entity.UserOrderRow(co.user.id, co.id, co.status, " +
+            "co.shippingAddress.fullName, co.shippingAddress.streetAddress, co.shippingAddress.city, co.shippingAddress.postalCode) " +
+            "FROM CustomerOrder co WHERE co.user.id IN :userIds ORDER BY co.user.id, co.id")
+    List<UserOrderRow> findOrderRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Locks the rows that are still in the expected status so the following UPDATE touches exactly these ids
+    @Query(value = "SELECT id FROM customer_order WHERE id IN (:orderIds) AND shipment_status = :currentStatus FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockIdsByShipmentStatus(@Param("orderIds") Collection<Long> orderIds,
+                                       @Param("currentStatus") String currentStatus);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CustomerOrder co SET co.shipmentStatus = :targetStatus, co.version = co.version + 1 " +
+            "WHERE co.id IN :orderIds AND co.shipmentStatus = :currentStatus")
+    int updateShipmentStatus(@Param("orderIds") Collection<Long> orderIds,
+                             @Param("currentStatus") String currentStatus,
+                             @Param("targetStatus") String targetStatus);
+
+    // Forward-only cursor: MySQL Connector/J streams rows one by one only when fetch size is Integer.MIN_VALUE.
+    // Must be consumed inside a read-only transaction and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.ecommerce.ecommerce_backend.entity.OrderExportRow(co.id, co.orderDate, co.status, co.shipmentStatus, " +
+            "co.total, co.paymentIntentId, u.id, u.email, i.id, p.id, p.name, p.category, i.quantity, i.price) " +
+            "FROM CustomerOrder co LEFT JOIN co.user u LEFT JOIN co.items i LEFT JOIN i.product p " +
+            "WHERE co.orderDate >= :from AND co.orderDate < :to " +
+            "ORDER BY co.orderDate, co.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MAX(co.id) FROM CustomerOrder co")
+    Long findMaxId();
+
+    // (orderId, productId) pairs for an id range, used to rebuild co-purchase statistics
+    @Query("SELECT i.order.id, i.product.id FROM OrderItem i " +
+            "WHERE i.order.id > :fromId AND i.order.id <= :toId AND i.order.status = :status " +
+            "ORDER BY i.order.id")
+    List<Object[]> findOrderProductPairs(@Param("fromId") Long fromId,
+                                         @Param("toId") Long toId,
+                                         @Param("status") String status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CustomerOrder co SET co.refundStatus = :refundStatus, co.version = co.version + 1 WHERE co.id = :orderId")
+    int updateRefundStatus(@Param("orderId") Long orderId, @Param("refundStatus") String refundStatus);
+
+    // Keyset page of orders in a status that contain a product, for mass cancellation
+    @Query("SELECT DISTINCT i.order.id FROM OrderItem i " +
+            "WHERE i.product.id = :productId AND i.order.status = :status AND i.order.id > :afterId " +
+            "ORDER BY i.order.id")
+    List<Long> findOrderIdsByProductAndStatus(@Param("productId") Long productId,
+                                              @Param("status") String status,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+}
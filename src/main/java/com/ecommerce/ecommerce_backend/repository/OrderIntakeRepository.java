@@ -0,0 +1,41 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.OrderIntake;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, Long> {
+
+    Optional<OrderIntake> findByTrackingId(String trackingId);
+
+    Optional<OrderIntake> findFirstByPaymentIntentIdAndStatusIn(String paymentIntentId, Collection<OrderIntake.Status> statuses);
+
+    @Query("SELECT i.id FROM OrderIntake i WHERE i.status = :status AND i.nextAttemptAt <= :now ORDER BY i.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") OrderIntake.Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Only one worker can move a row from QUEUED to PROCESSING
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderIntake i SET i.status = :processing, i.attempts = i.attempts + 1, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status = :queued AND i.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("queued") OrderIntake.Status queued,
+              @Param("processing") OrderIntake.Status processing,
+              @Param("now") LocalDateTime now);
+
+    // Rows left in PROCESSING by a worker that died are handed back to the queue
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OrderIntake i SET i.status = :queued, i.nextAttemptAt = :now, i.updatedAt = :now " +
+            "WHERE i.status = :processing AND i.updatedAt < :staleBefore")
+    int requeueStale(@Param("processing") OrderIntake.Status processing,
+                     @Param("queued") OrderIntake.Status queued,
+                     @Param("staleBefore") LocalDateTime staleBefore,
+                     @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, Long> {
+
+    Optional<RefreshTokenFamily> findByFamilyId(String familyId);
+
+    // Compare-and-set on the current token hash: of two requests presenting the same token only one can win
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshTokenFamily f SET f.tokenHash = :newHash, f.previousTokenHash = :oldHash, " +
+            "f.rotatedAt = :now, f.expiresAt = :expiresAt " +
+            "WHERE f.familyId = :familyId AND f.tokenHash = :oldHash AND f.revoked = false AND f.expiresAt > :now")
+    int rotate(@Param("familyId") String familyId,
+               @Param("oldHash") String oldHash,
+               @Param("newHash") String newHash,
+               @Param("now") LocalDateTime now,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.familyId = :familyId")
+    int revoke(@Param("familyId") String familyId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.username = :username AND f.revoked = false")
+    int revokeByUsername(@Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.RefundJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface RefundJobRepository extends JpaRepository<RefundJob, Long> {
+
+    Optional<RefundJob> findByOrderId(Long orderId);
+
+    @Query("SELECT r.id FROM RefundJob r WHERE r.status = :status AND r.nextAttemptAt <= :now ORDER BY r.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") RefundJob.Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    // Keyset page for the reconciliation pass
+    @Query("SELECT r FROM RefundJob r WHERE r.status = :status AND r.id > :afterId ORDER BY r.id")
+    List<RefundJob> findPageByStatus(@Param("status") RefundJob.Status status, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Only one worker can move a job from PENDING to PROCESSING
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob r SET r.status = :processing, r.attempts = r.attempts + 1, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = :pending AND r.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("pending") RefundJob.Status pending,
+              @Param("processing") RefundJob.Status processing,
+              @Param("now") LocalDateTime now);
+
+    // Jobs left in PROCESSING by a worker that died are handed back; the idempotency key makes the resend safe
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob r SET r.status = :pending, r.nextAttemptAt = :now, r.updatedAt = :now " +
+            "WHERE r.status = :processing AND r.updatedAt < :staleBefore AND r.attempts < :maxAttempts")
+    int requeueStale(@Param("processing") RefundJob.Status processing,
+                     @Param("pending") RefundJob.Status pending,
+                     @Param("staleBefore") LocalDateTime staleBefore,
+                     @Param("maxAttempts") int maxAttempts,
+                     @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.orderId FROM RefundJob r " +
+            "WHERE r.status = :processing AND r.updatedAt < :staleBefore AND r.attempts >= :maxAttempts")
+    List<Long> findExhaustedStaleOrderIds(@Param("processing") RefundJob.Status processing,
+                                          @Param("staleBefore") LocalDateTime staleBefore,
+                                          @Param("maxAttempts") int maxAttempts);
+
+    // Stale jobs that have used up their attempts are given up on rather than resent forever
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefundJob r SET r.status = :failed, r.message = :message, r.updatedAt = :now " +
+            "WHERE r.status = :processing AND r.updatedAt < :staleBefore AND r.attempts >= :maxAttempts")
+    int failExhaustedStale(@Param("processing") RefundJob.Status processing,
+                           @Param("failed") RefundJob.Status failed,
+                           @Param("staleBefore") LocalDateTime staleBefore,
+                           @Param("maxAttempts") int maxAttempts,
+                           @Param("message") String message,
+                           @Param("now") LocalDateTime now);
+}
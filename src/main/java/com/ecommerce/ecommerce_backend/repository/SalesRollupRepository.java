@@ -0,0 +1,31 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND r.category = '*' ORDER BY r.bucketStart")
+    List<SalesRollup> findTotals(@Param("granularity") String granularity,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND r.productId = 0 AND r.category <> '*' ORDER BY r.bucketStart, r.category")
+    List<SalesRollup> findByCategory(@Param("granularity") String granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "AND r.productId > 0 AND (:category IS NULL OR r.category = :category) ORDER BY r.bucketStart, r.productId")
+    List<SalesRollup> findByProduct(@Param("granularity") String granularity,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("category") String category);
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByReservationKey(String reservationKey);
+
+    List<StockReservation> findByReservationKeyAndStatus(String reservationKey, StockReservation.Status status);
+
+    @Query("SELECT DISTINCT r.reservationKey FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now")
+    List<String> findExpiredKeys(@Param("status") StockReservation.Status status,
+                                 @Param("now") LocalDateTime now,
+                                 Pageable pageable);
+
+    // Guarded so that exactly one of commit, release and expiry wins for a reservation
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :target WHERE r.reservationKey = :key AND r.status = :current")
+    int updateStatus(@Param("key") String reservationKey,
+                     @Param("current") StockReservation.Status current,
+                     @Param("target") StockReservation.Status target);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.expiresAt = :expiresAt WHERE r.reservationKey = :key AND r.status = :status")
+    int extend(@Param("key") String reservationKey,
+               @Param("status") StockReservation.Status status,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM StockReservation r WHERE r.reservationKey = :key AND r.status IN :statuses")
+    int deleteByKeyAndStatusIn(@Param("key") String reservationKey,
+                               @Param("statuses") Collection<StockReservation.Status> statuses);
+
+    @Query("SELECT r.productId, SUM(r.quantity) FROM StockReservation r " +
+            "WHERE r.status = :status AND r.productId IN :productIds GROUP BY r.productId")
+    List<Object[]> sumQuantityByProduct(@Param("status") StockReservation.Status status,
+                                        @Param("productIds") Collection<Long> productIds);
+
+    // Units sold but not yet subtracted from product.stock
+    @Query("SELECT r.productId, SUM(r.quantity) FROM StockReservation r " +
+            "WHERE r.stockApplied = false AND r.status = :status AND r.productId IN :productIds GROUP BY r.productId")
+    List<Object[]> sumUnappliedByProduct(@Param("status") StockReservation.Status status,
+                                         @Param("productIds") Collection<Long> productIds);
+
+    // Next sales to apply to product.stock. Rows another node is flushing are skipped rather than waited for.
+    // Columns: id, product_id, quantity.
+    @Query(value = "SELECT id, product_id, quantity FROM stock_reservation " +
+            "WHERE stock_applied = 0 AND status = 'COMMITTED' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Object[]> lockUnapplied(@Param("limit") int limit);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.stockApplied = true WHERE r.id IN :ids")
+    int markApplied(@Param("ids") Collection<Long> ids);
+
+    // An absolute stock count supersedes sales that have not been applied yet
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.stockApplied = true " +
+            "WHERE r.productId = :productId AND r.stockApplied = false AND r.status = :status")
+    int markAppliedForProduct(@Param("productId") Long productId, @Param("status") StockReservation.Status status);
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.ecommerce_backend.repository;
+
+import com.ecommerce.ecommerce_backend.entity.TokenRevocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Keyset page of live revocations for the startup load
+    @Query("SELECT r FROM TokenRevocation r WHERE r.expiresAt > :now AND r.id > :afterId ORDER BY r.id")
+    List<TokenRevocation> findLivePage(@Param("now") LocalDateTime now, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Revocations written since the given time, by any node
+    @Query("SELECT r FROM TokenRevocation r WHERE r.createdAt >= :since AND r.expiresAt > :now ORDER BY r.createdAt")
+    List<TokenRevocation> findCreatedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
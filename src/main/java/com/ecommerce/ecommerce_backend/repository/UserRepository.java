@@ -1,12 +1,48 @@
 package com.ecommerce.ecommerce_backend.repository;
 
+import com.ecommerce.ecommerce_backend.entity.AdminUserRow;
 import com.ecommerce.ecommerce_backend.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    // Resolves a username against users and admins in one round trip: one row for a customer, one row per role
+    // for an admin. Columns: kind, id, username, password, email, name, role.
+    @Query(value = "SELECT 'USER' AS kind, u.id, u.username, u.password, u.email, u.name, NULL AS role " +
+            "FROM users u WHERE u.username = :username " +
+            "UNION ALL " +
+            "SELECT 'ADMIN', a.id, a.username, a.password, a.email, NULL, r.role " +
+            "FROM admins a LEFT JOIN admin_roles r ON r.admin_id = a.id WHERE a.username = :username",
+            nativeQuery = true)
+    List<Object[]> findIdentityRows(@Param("username") String username);
+
+    // Usernames of the form <base>[0-9]* across users and admins; the LIKE prefix keeps it a range scan of the
+    // username indexes. base must contain only [a-z0-9].
+    @Query(value = "SELECT u.username FROM users u " +
+            "WHERE u.username LIKE CONCAT(:base, '%') AND u.username REGEXP CONCAT('^', :base, '[0-9]*$') " +
+            "UNION " +
+            "SELECT a.username FROM admins a " +
+            "WHERE a.username LIKE CONCAT(:base, '%') AND a.username REGEXP CONCAT('^', :base, '[0-9]*$')",
+            nativeQuery = true)
+    List<String> findUsernamesWithBase(@Param("base") String base);
+
+    @Query("SELECT new com.ecommerce.ecommerce_backend.entity.AdminUserRow(u.id, u.name, u.username, u.email) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<AdminUserRow> findAdminUserRows(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs independent calls in parallel under one deadline. The first failure, or running out of time, cancels
+// (interrupts) whatever is still running, so the caller waits for the slowest call rather than the sum of all.
+public class FanOut {
+
+    private final CompletionService<Object> completion;
+    private final List<Future<Object>> futures = new ArrayList<>();
+
+    public FanOut(Executor executor) {
+        this.completion = new ExecutorCompletionService<>(executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> submit(Callable<T> task) {
+        Future<Object> future = completion.submit((Callable<Object>) task);
+        futures.add(future);
+        return (Future<T>) future;
+    }
+
+    // Throws the first task failure as an ExecutionException, or TimeoutException when the deadline passes
+    public void await(long timeoutMs) throws ExecutionException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<Object> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("Deadline of " + timeoutMs + " ms exceeded");
+                }
+                done.get();
+            }
+        } catch (ExecutionException | TimeoutException | InterruptedException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    public void cancelAll() {
+        for (Future<Object> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Asymmetric JWT keys, identified by kid. With a key directory every key is a pair of PEM files: <kid>.pub (X.509)
+// for each key tokens may still be signed with, and <kid>.key (PKCS#8, owner-only) for keys this node may sign with.
+// The active key is the kid written in the directory's active-kid file, else the configured kid, else the newest
+// private key; all three are re-read on every load. Rotation: add a new pair on every node, write its kid to
+// active-kid, and delete the old pair once the tokens it signed have expired. Without a directory a throwaway pair
+// is generated at startup, which only suits a single node.
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String ACTIVE_KID_FILE = "active-kid";
+    private static final DateTimeFormatter KID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public static class SigningKey {
+        private final String kid;
+        private final PrivateKey privateKey;
+
+        SigningKey(String kid, PrivateKey privateKey) {
+            this.kid = kid;
+            this.privateKey = privateKey;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+    }
+
+    private final String algorithm;
+    private final SignatureAlgorithm signatureAlgorithm;
+    private final String keyFactoryAlgorithm;
+    private final Path directory;
+    private final String activeKid;
+
+    private volatile Map<String, PublicKey> publicKeys = Map.of();
+    private volatile SigningKey signingKey;
+
+    public JwtKeyRing(String algorithm, Path directory, String activeKid) {
+        this.algorithm = algorithm;
+        this.directory = directory;
+        this.activeKid = activeKid;
+        if ("ES256".equals(algorithm)) {
+            this.signatureAlgorithm = Jwts.SIG.ES256;
+            this.keyFactoryAlgorithm = "EC";
+        } else if ("EdDSA".equals(algorithm)) {
+            this.signatureAlgorithm = Jwts.SIG.EdDSA;
+            this.keyFactoryAlgorithm = "Ed25519";
+        } else {
+            throw new IllegalArgumentException("Unsupported JWT signing algorithm: " + algorithm);
+        }
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    public PublicKey getPublicKey(String kid) {
+        return kid != null ? publicKeys.get(kid) : null;
+    }
+
+    public Map<String, PublicKey> getPublicKeys() {
+        return publicKeys;
+    }
+
+    // (Re)reads the key directory and swaps in the result; the previous keys stay in use if reading fails
+    public synchronized void load() {
+        if (directory == null) {
+            if (signingKey == null) {
+                String kid = newKid();
+                KeyPair pair = newKeyPair();
+                publicKeys = Map.of(kid, pair.getPublic());
+                signingKey = new SigningKey(kid, pair.getPrivate());
+                logger.warn("No jwt.signing.key-dir configured, using a generated {} key ({}); tokens will not verify on other nodes or after a restart",
+                        algorithm, kid);
+            }
+            return;
+        }
+        try {
+            if (!Files.isDirectory(directory)) {
+                Files.createDirectories(directory);
+            }
+            Map<String, PublicKey> loadedPublic = new LinkedHashMap<>();
+            Map<String, PrivateKey> loadedPrivate = new LinkedHashMap<>();
+            Map<String, Long> privateModified = new LinkedHashMap<>();
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.sorted().toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".pub")) {
+                        loadedPublic.put(kidOf(name), keyFactory.generatePublic(new X509EncodedKeySpec(readPem(file))));
+                    } else if (name.endsWith(".key")) {
+                        String kid = kidOf(name);
+                        loadedPrivate.put(kid, keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(file))));
+                        privateModified.put(kid, Files.getLastModifiedTime(file).toMillis());
+                    }
+                }
+            }
+
+            if (loadedPrivate.isEmpty()) {
+                String kid = generate();
+                logger.info("Generated first {} signing key {} in {}", algorithm, kid, directory);
+                load();
+                return;
+            }
+            String kid = readActiveKid();
+            if (kid == null) {
+                kid = Collections.max(privateModified.entrySet(), Map.Entry.comparingByValue()).getKey();
+            }
+            PrivateKey privateKey = loadedPrivate.get(kid);
+            if (privateKey == null || !loadedPublic.containsKey(kid)) {
+                throw new IllegalStateException("No key pair found for active JWT key id " + kid);
+            }
+            publicKeys = Collections.unmodifiableMap(loadedPublic);
+            if (signingKey == null || !signingKey.getKid().equals(kid)) {
+                logger.info("Signing JWTs with {} key {} ({} verification keys)", algorithm, kid, loadedPublic.size());
+            }
+            signingKey = new SigningKey(kid, privateKey);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            if (signingKey == null) {
+                throw new IllegalStateException("Failed to load JWT keys from " + directory + ": " + e.getMessage(), e);
+            }
+            logger.error("Failed to reload JWT keys from {}, keeping the current keys: {}", directory, e.getMessage());
+        }
+    }
+
+    // Writes a new key pair to the directory and returns its kid. It only becomes active after the next load,
+    // and only if it is the configured kid or no kid is configured.
+    public synchronized String generate() throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("jwt.signing.key-dir is not configured");
+        }
+        String kid = newKid();
+        KeyPair pair = newKeyPair();
+        writePem(directory.resolve(kid + ".pub"), "PUBLIC KEY", pair.getPublic().getEncoded(), false);
+        writePem(directory.resolve(kid + ".key"), "PRIVATE KEY", pair.getPrivate().getEncoded(), true);
+        return kid;
+    }
+
+    // The active-kid file lets a running node switch keys; the configured kid only applies without it
+    private String readActiveKid() throws IOException {
+        Path file = directory.resolve(ACTIVE_KID_FILE);
+        if (Files.isRegularFile(file)) {
+            String kid = Files.readString(file, StandardCharsets.US_ASCII).trim();
+            if (!kid.isEmpty()) {
+                return kid;
+            }
+        }
+        return activeKid != null && !activeKid.isBlank() ? activeKid : null;
+    }
+
+    // jjwt's EdDSA generator may pick Ed448; keys here are always P-256 or Ed25519
+    private KeyPair newKeyPair() {
+        return "EdDSA".equals(algorithm) ? Jwks.CRV.Ed25519.keyPair().build() : signatureAlgorithm.keyPair().build();
+    }
+
+    private String newKid() {
+        return algorithm.toLowerCase() + "-" + LocalDateTime.now().format(KID_FORMAT);
+    }
+
+    private static String kidOf(String fileName) {
+        return fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+
+    private static byte[] readPem(Path file) throws IOException {
+        String pem = Files.readString(file, StandardCharsets.US_ASCII);
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    // Private keys are created rw------- up front where the file system supports it, so they are never readable by others
+    private static void writePem(Path file, String type, byte[] der, boolean ownerOnly) throws IOException {
+        if (ownerOnly && file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        Files.writeString(file, "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n", StandardCharsets.US_ASCII);
+    }
+}
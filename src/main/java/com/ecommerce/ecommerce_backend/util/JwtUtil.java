@@ -1,25 +1,45 @@
 package com.ecommerce.ecommerce_backend.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Jwks;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
     private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String FAMILY_CLAIM = "fid";
+    // iat in milliseconds; iat itself has second precision, too coarse to order a token against a revocation
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
 
     @Value("${jwt.secret:/KKpyW07YkFQpwFS13ZT18cQBtmnvjrXhX+n4rHfzO0=}")
     private String secretKey;
@@ -30,8 +50,32 @@ public class JwtUtil {
     @Value("${jwt.refresh.expiration:1209600000}") // 14 days for refresh token
     private long refreshTokenExpirationTime;
 
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // HS512 (shared secret), ES256 or EdDSA
+    @Value("${jwt.signing.algorithm:HS512}")
+    private String signingAlgorithm;
+
+    @Value("${jwt.signing.key-dir:}")
+    private String signingKeyDir;
+
+    // Read at startup; a running node switches keys through the active-kid file in the key directory
+    @Value("${jwt.signing.active-kid:}")
+    private String activeKid;
+
+    // Lets HS512 tokens issued before switching to asymmetric signing verify. Only for the switch-over: turn it off
+    // again once the longest token lifetime has passed, or the shared secret can still mint accepted tokens.
+    @Value("${jwt.signing.accept-hmac:false}")
+    private boolean acceptHmac;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
     private SecretKey key;
+    private JwtKeyRing keyRing;
+    private JwtParser parser;
+    private ExpiringLruCache<String, VerifiedToken> verifiedTokens;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
 
     @PostConstruct
     public void init() {
@@ -41,74 +85,186 @@ public class JwtUtil {
             throw new IllegalStateException("JWT secret key must be configured in application.properties");
         }
         this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        if ("HS512".equals(signingAlgorithm)) {
+            // Thread-safe once built, so one parser serves every request
+            this.parser = Jwts.parser().verifyWith(key).build();
+        } else {
+            this.keyRing = new JwtKeyRing(signingAlgorithm, signingKeyDir.isBlank() ? null : Path.of(signingKeyDir), activeKid);
+            keyRing.load();
+            if (acceptHmac) {
+                logger.warn("jwt.signing.accept-hmac is on: HS512 tokens are still accepted next to {} keys", signingAlgorithm);
+            }
+            this.parser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+                @Override
+                protected Key locate(JwsHeader header) {
+                    if (header.getKeyId() == null && acceptHmac && "HS512".equals(header.getAlgorithm())) {
+                        return key;
+                    }
+                    PublicKey publicKey = keyRing.getPublicKey(header.getKeyId());
+                    if (publicKey == null) {
+                        throw new JwtException("Unknown signing key: " + header.getKeyId());
+                    }
+                    return publicKey;
+                }
+            }).build();
+        }
+        this.verifiedTokens = new ExpiringLruCache<>(cacheMaxEntries, 16);
     }
 
-    public String generateAccessToken(String username, Set<String> roles) {
+    public String generateAccessToken(String username, Set<String> roles, Long userId) {
         logger.debug("Generating access token for username: {} with roles: {}", username, roles);
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        return sign(Jwts.builder()
                 .claim(ROLES_CLAIM, new ArrayList<>(roles))
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpirationTime))
-                .signWith(key, SignatureAlgorithm.HS512)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenExpirationTime)))
                 .compact();
     }
 
-    public String generateRefreshToken(String username) {
+    // Every refresh token belongs to a server-side family, see RefreshTokenService
+    public String generateRefreshToken(String username, String familyId) {
         logger.debug("Generating refresh token for username: {}", username);
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        return sign(Jwts.builder()
+                .claim(FAMILY_CLAIM, familyId)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpirationTime))
-                .signWith(key, SignatureAlgorithm.HS512)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + refreshTokenExpirationTime)))
                 .compact();
     }
 
-    public String extractUsername(String token) {
+    public long getRefreshTokenExpirationMillis() {
+        return refreshTokenExpirationTime;
+    }
+
+    // Longest time any token issued now can stay valid
+    public long getMaxTokenLifetimeMillis() {
+        return Math.max(accessTokenExpirationTime, refreshTokenExpirationTime);
+    }
+
+    // Checks signature and expiry exactly once and returns the claims the application needs. Verified tokens are
+    // cached by their SHA-256 until they expire, so a token presented again costs a hash and a map lookup.
+    // Throws JwtException (including ExpiredJwtException) or IllegalArgumentException for an unusable token.
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Token is empty");
+        }
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        long started = System.nanoTime();
+        Claims claims;
         try {
-            Claims claims = extractClaims(token);
-            return claims.getSubject();
-        } catch (Exception e) {
-            logger.warn("Failed to extract username from token: {}", e.getMessage());
-            return null;
+            claims = parser.parseSignedClaims(token).getPayload();
+        } finally {
+            verifications.increment();
+            verificationNanos.add(System.nanoTime() - started);
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token has no subject or expiry");
+        }
+        Set<String> roles = new HashSet<>();
+        if (claims.get(ROLES_CLAIM) instanceof List<?> list) {
+            list.forEach(role -> roles.add(String.valueOf(role)));
         }
+        Long userId = claims.get(USER_ID_CLAIM) instanceof Number number ? number.longValue() : null;
+        String familyId = claims.get(FAMILY_CLAIM) instanceof String fid ? fid : null;
+        Instant issuedAt = claims.get(ISSUED_AT_MILLIS_CLAIM) instanceof Number millis ? Instant.ofEpochMilli(millis.longValue())
+                : claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), roles, userId, claims.getId(), familyId,
+                issuedAt, claims.getExpiration().toInstant());
+        verifiedTokens.put(cacheKey, verified, verified.getExpiresAt().toEpochMilli());
+        return verified;
     }
 
-    @SuppressWarnings("unchecked")
-    public Set<String> extractRoles(String token) {
+    // Drops cached verifications so the next use of the token is checked again
+    public void evictToken(String token) {
+        verifiedTokens.remove(hash(token));
+    }
+
+    public void evictSubject(String subject) {
+        int removed = verifiedTokens.removeIf((key, verified) -> verified.getSubject().equals(subject));
+        logger.debug("Evicted {} cached tokens for {}", removed, subject);
+    }
+
+    public Map<String, Object> getCacheMetrics() {
+        long count = verifications.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entries", verifiedTokens.size());
+        metrics.put("hits", verifiedTokens.getHits());
+        metrics.put("misses", verifiedTokens.getMisses());
+        metrics.put("hitRatio", verifiedTokens.getHitRatio());
+        metrics.put("evictions", verifiedTokens.getEvictions());
+        metrics.put("verifications", count);
+        metrics.put("avgVerificationMicros", count > 0 ? verificationNanos.sum() / count / 1000 : 0);
+        return metrics;
+    }
+
+    // Null when the token does not verify
+    public VerifiedToken tryVerify(String token) {
         try {
-            Claims claims = extractClaims(token);
-            Object rolesObj = claims.get(ROLES_CLAIM);
-            if (rolesObj instanceof List<?>) {
-                return new HashSet<>((List<String>) rolesObj);
-            }
-            logger.warn("Roles not found or not a list in token");
-            return new HashSet<>();
-        } catch (Exception e) {
-            logger.warn("Failed to extract roles from token: {}", e.getMessage());
-            return new HashSet<>();
+            return verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token rejected: {}", e.getMessage());
+            return null;
         }
     }
 
+    public String extractUsername(String token) {
+        VerifiedToken verified = tryVerify(token);
+        return verified != null ? verified.getSubject() : null;
+    }
+
+    public Set<String> extractRoles(String token) {
+        VerifiedToken verified = tryVerify(token);
+        return verified != null ? new HashSet<>(verified.getRoles()) : new HashSet<>();
+    }
+
     public boolean isTokenExpired(String token) {
-        try {
-            return extractClaims(token).getExpiration().before(new Date());
-        } catch (Exception e) {
-            logger.warn("Token expiration check failed, assuming expired: {}", e.getMessage());
-            return true;
-        }
+        VerifiedToken verified = tryVerify(token);
+        return verified == null || verified.isExpired();
     }
 
     public boolean validateToken(String token, String username) {
-        try {
-            String extractedUsername = extractUsername(token);
-            boolean isExpired = isTokenExpired(token);
-            boolean isValid = extractedUsername != null && extractedUsername.equals(username) && !isExpired;
-            logger.debug("Token validation - Username: {}, Expired: {}, Valid: {}", extractedUsername, isExpired, isValid);
-            return isValid;
-        } catch (Exception e) {
-            logger.warn("Token validation failed for username {}: {}", username, e.getMessage());
-            return false;
+        VerifiedToken verified = tryVerify(token);
+        return verified != null && verified.getSubject().equals(username) && !verified.isExpired();
+    }
+
+    // Public keys in JWK form for /.well-known/jwks.json; empty in HS512 mode, where there is nothing to publish
+    public List<Map<String, Object>> getPublicJwks() {
+        if (keyRing == null) {
+            return List.of();
+        }
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keyRing.getPublicKeys().forEach((kid, publicKey) -> {
+            PublicJwk<?> jwk = Jwks.builder().key(publicKey)
+                    .id(kid)
+                    .algorithm(keyRing.getAlgorithm())
+                    .publicKeyUse("sig")
+                    .build();
+            try {
+                jwks.add(objectMapper.readValue(Jwks.json(jwk), new TypeReference<Map<String, Object>>() {}));
+            } catch (Exception e) {
+                logger.error("Failed to serialize JWK {}: {}", kid, e.getMessage());
+            }
+        });
+        return jwks;
+    }
+
+    // Picks up rotated key files without a restart
+    @Scheduled(fixedDelayString = "${jwt.signing.reload-ms:60000}")
+    public void reloadKeys() {
+        if (keyRing != null) {
+            keyRing.load();
         }
     }
 
@@ -121,16 +277,22 @@ public class JwtUtil {
         }
     }
 
-    private Claims extractClaims(String token) {
+    // SHA-256, Base64; also how refresh tokens are stored server-side
+    public static String hash(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            logger.error("Error extracting claims from token: {}", e.getMessage());
-            throw new IllegalArgumentException("Invalid token", e);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private JwtBuilder sign(JwtBuilder builder) {
+        if (keyRing == null) {
+            return builder.signWith(key, SignatureAlgorithm.HS512);
         }
+        JwtKeyRing.SigningKey signingKey = keyRing.getSigningKey();
+        return builder.header().keyId(signingKey.getKid()).and()
+                .signWith(signingKey.getPrivateKey(), keyRing.getSignatureAlgorithm());
     }
-}
\ No newline at end of file
+}
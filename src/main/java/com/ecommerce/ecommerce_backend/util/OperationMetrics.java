@@ -0,0 +1,54 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lightweight per-operation counters (calls, failures, rejections, latency) for remote dependencies
+public class OperationMetrics {
+
+    private static class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+    }
+
+    private final Map<String, Stats> operations = new ConcurrentHashMap<>();
+
+    public void record(String operation, long millis, boolean success) {
+        Stats stats = stats(operation);
+        stats.calls.increment();
+        if (!success) {
+            stats.failures.increment();
+        }
+        stats.totalMillis.add(millis);
+        stats.maxMillis.accumulate(millis);
+    }
+
+    public void rejected(String operation) {
+        stats(operation).rejected.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        operations.forEach((operation, stats) -> {
+            long calls = stats.calls.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("calls", calls);
+            values.put("failures", stats.failures.sum());
+            values.put("rejected", stats.rejected.sum());
+            values.put("avgMillis", calls > 0 ? stats.totalMillis.sum() / calls : 0);
+            values.put("maxMillis", stats.maxMillis.get());
+            snapshot.put(operation, values);
+        });
+        return snapshot;
+    }
+
+    private Stats stats(String operation) {
+        return operations.computeIfAbsent(operation, key -> new Stats());
+    }
+}
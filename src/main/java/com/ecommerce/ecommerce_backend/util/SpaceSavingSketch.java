@@ -0,0 +1,172 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Space-Saving heavy hitters (Metwally et al.): tracks at most 'capacity' keys. When full, a new key takes over the
+// smallest counter and inherits its count as error, so any key whose true count exceeds total/capacity is kept.
+// Counters sit in an indexed min-heap, making offer O(log capacity). Not thread-safe.
+public class SpaceSavingSketch<K> {
+
+    public static class Entry<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        public Entry(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        // Upper bound on the true count
+        public long getCount() {
+            return count;
+        }
+
+        // count - error is a lower bound on the true count
+        public long getError() {
+            return error;
+        }
+    }
+
+    private static class Counter<K> {
+        K key;
+        long count;
+        long error;
+        int index;
+    }
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final List<Counter<K>> heap;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new ArrayList<>(capacity);
+    }
+
+    public void offer(K key) {
+        offer(key, 1);
+    }
+
+    public void offer(K key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        total += weight;
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+
+        if (heap.size() < capacity) {
+            counter = new Counter<>();
+            counter.key = key;
+            counter.count = weight;
+            counter.index = heap.size();
+            heap.add(counter);
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        }
+
+        // Evict the minimum; the newcomer may have occurred up to min.count times unseen
+        Counter<K> min = heap.get(0);
+        counters.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count += weight;
+        counters.put(key, min);
+        siftDown(0);
+    }
+
+    // Adds another sketch's counters, e.g. to combine time buckets into one window
+    public void merge(SpaceSavingSketch<K> other) {
+        for (Counter<K> counter : other.heap) {
+            offer(counter.key, counter.count);
+        }
+    }
+
+    public List<Entry<K>> top(int limit) {
+        List<Entry<K>> entries = new ArrayList<>(heap.size());
+        for (Counter<K> counter : heap) {
+            entries.add(new Entry<>(counter.key, counter.count, counter.error));
+        }
+        entries.sort(Comparator.comparingLong((Entry<K> e) -> e.count).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    public long estimate(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter != null ? counter.count : 0;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public void clear() {
+        counters.clear();
+        heap.clear();
+        total = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter<K> counter = heap.get(index);
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Counter<K> parentCounter = heap.get(parent);
+            if (parentCounter.count <= counter.count) {
+                break;
+            }
+            place(parentCounter, index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K> counter = heap.get(index);
+        int size = heap.size();
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap.get(child + 1).count < heap.get(child).count) {
+                child++;
+            }
+            Counter<K> childCounter = heap.get(child);
+            if (counter.count <= childCounter.count) {
+                break;
+            }
+            place(childCounter, index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K> counter, int index) {
+        heap.set(index, counter);
+        counter.index = index;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One token bucket per key (IP, username, email...): up to 'capacity' requests in a burst, refilled continuously at
+// capacity / period. Buckets live in lock-striped, access-ordered maps, so unrelated keys rarely contend and memory is
+// capped at maxKeys: the least recently seen key of a full stripe is dropped. Dropping a bucket only forgets how
+// empty it was, which errs on the side of letting a request through. Thread-safe.
+public class TokenBucketRateLimiter {
+
+    private static class Bucket {
+        double tokens;
+        long updatedNanos;
+
+        Bucket(double tokens, long updatedNanos) {
+            this.tokens = tokens;
+            this.updatedNanos = updatedNanos;
+        }
+    }
+
+    private static class Stripe {
+        final LinkedHashMap<String, Bucket> buckets;
+
+        Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final Stripe[] stripes;
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public TokenBucketRateLimiter(int capacity, long periodMillis, int maxKeys, int stripeCount) {
+        if (capacity < 1 || periodMillis < 1) {
+            throw new IllegalArgumentException("capacity and period must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (periodMillis * 1_000_000.0);
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxKeys / count));
+        }
+    }
+
+    // "20/60" = 20 requests per 60 seconds
+    public static TokenBucketRateLimiter fromSpec(String spec, int maxKeys, int stripeCount) {
+        String[] parts = spec.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must look like <requests>/<seconds>: " + spec);
+        }
+        return new TokenBucketRateLimiter(Integer.parseInt(parts[0].trim()), Long.parseLong(parts[1].trim()) * 1000,
+                maxKeys, stripeCount);
+    }
+
+    // 0 if the request may proceed, otherwise the milliseconds until the next token
+    public long tryAcquire(String key) {
+        Stripe stripe = stripeFor(key);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                stripe.buckets.put(key, new Bucket(capacity - 1, now));
+                allowed.incrementAndGet();
+                return 0;
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedNanos) * tokensPerNano);
+            bucket.updatedNanos = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                allowed.incrementAndGet();
+                return 0;
+            }
+            rejected.incrementAndGet();
+            return Math.max(1, (long) Math.ceil((1 - bucket.tokens) / tokensPerNano / 1_000_000));
+        }
+    }
+
+    // Drops buckets that have refilled completely; they carry no information
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Bucket> iterator = stripe.buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    Bucket bucket = iterator.next();
+                    if (bucket.tokens + (now - bucket.updatedNanos) * tokensPerNano >= capacity) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    public long getAllowed() {
+        return allowed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
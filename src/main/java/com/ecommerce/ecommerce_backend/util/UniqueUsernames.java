@@ -0,0 +1,44 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Username suggestions for accounts created without one (OAuth2 sign-ups): the display name or email local part,
+// reduced to lowercase letters and digits, plus the smallest numeric suffix not yet taken ("john", "john1", ...).
+public final class UniqueUsernames {
+
+    private static final String FALLBACK_BASE = "user";
+
+    private UniqueUsernames() {
+    }
+
+    // Only [a-z0-9] survives, so the result is also safe to use in LIKE and REGEXP patterns
+    public static String base(String name, String email) {
+        String source = name != null && !name.isBlank() ? name : email != null ? email.split("@")[0] : "";
+        String base = source.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        return base.isEmpty() ? FALLBACK_BASE : base;
+    }
+
+    // taken holds the existing usernames of the form base[0-9]*; anything else in it is ignored
+    public static String firstFree(String base, Collection<String> taken) {
+        if (!taken.contains(base)) {
+            return base;
+        }
+        Set<Long> suffixes = new HashSet<>();
+        for (String username : taken) {
+            if (username.length() > base.length() && username.startsWith(base)) {
+                String suffix = username.substring(base.length());
+                if (suffix.length() < 19 && suffix.chars().allMatch(Character::isDigit)) {
+                    suffixes.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        long suffix = 1;
+        while (suffixes.contains(suffix)) {
+            suffix++;
+        }
+        return base + suffix;
+    }
+}
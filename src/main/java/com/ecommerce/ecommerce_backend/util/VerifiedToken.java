@@ -0,0 +1,67 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import java.time.Instant;
+import java.util.Set;
+
+// Claims of a token whose signature and expiry have been checked. Immutable, so it can be shared between threads.
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Set<String> roles;
+    private final Long userId;
+    private final String tokenId;
+    private final String familyId;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public VerifiedToken(String subject, Set<String> roles, Long userId, String tokenId, String familyId,
+                         Instant issuedAt, Instant expiresAt) {
+        this.subject = subject;
+        this.roles = Set.copyOf(roles);
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.familyId = familyId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    // Null for tokens issued before the user id claim was added
+    public Long getUserId() {
+        return userId;
+    }
+
+    // jti; null for tokens issued before token ids were added
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    // Set on refresh tokens only
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public boolean isRefreshToken() {
+        return familyId != null;
+    }
+
+    // Null if the token carries no iat
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckoutAdmissionFilterTests {
+
+	@Test
+	void rejectionReportsQueuePositionInBody() throws Exception {
+		CheckoutAdmissionFilter filter = new CheckoutAdmissionFilter(1, 0, 50);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			try {
+				filter.doFilter(post(), new MockHttpServletResponse(), (request, response) -> {
+					running.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		holder.start();
+		assertThat(running.await(2, TimeUnit.SECONDS)).isTrue();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(post(), rejected, chain);
+		release.countDown();
+		holder.join(2000);
+
+		assertThat(rejected.getStatus()).isEqualTo(503);
+		assertThat(rejected.getHeader("Retry-After")).isNotNull();
+		assertThat(rejected.getContentAsString()).contains("\"queuePosition\": 1");
+		assertThat(chain.getRequest()).isNull();
+		assertThat(filter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void admitsWhenPermitIsFree() throws Exception {
+		CheckoutAdmissionFilter filter = new CheckoutAdmissionFilter(1, 0, 50);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(post(), response, chain);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(chain.getRequest()).isNotNull();
+		assertThat(filter.getInFlight()).isZero();
+	}
+
+	private static MockHttpServletRequest post() {
+		return new MockHttpServletRequest("POST", "/api/orders/checkout");
+	}
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.ecommerce_backend.Config;
+
+import com.ecommerce.ecommerce_backend.util.TokenBucketRateLimiter;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTests {
+
+	private RateLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new RateLimitFilter(List.of(new RateLimitFilter.Policy("login", "/api/auth/login",
+				new TokenBucketRateLimiter(2, 60_000, 100, 1), "username",
+				new TokenBucketRateLimiter(1, 60_000, 100, 1))));
+	}
+
+	@Test
+	void passesBodyThroughToController() throws Exception {
+		String body = "{\"username\":\"alice\",\"password\":\"secret\"}";
+		MockFilterChain chain = new MockFilterChain();
+
+		MockHttpServletResponse response = post("/api/auth/login", body, "10.0.0.1", chain);
+
+		assertThat(response.getStatus()).isEqualTo(200);
+		byte[] forwarded = chain.getRequest().getInputStream().readAllBytes();
+		assertThat(new String(forwarded, StandardCharsets.UTF_8)).isEqualTo(body);
+		assertThat(chain.getRequest().getContentLength()).isEqualTo(body.length());
+	}
+
+	@Test
+	void encodedPathIsLimitedLikeThePlainOne() throws Exception {
+		String body = "{\"username\":\"alice\",\"password\":\"secret\"}";
+
+		assertThat(post("/api/auth/login", body, "10.0.0.1", new MockFilterChain()).getStatus()).isEqualTo(200);
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = post("/api/auth/%6Cogin", body, "10.0.0.2", chain);
+
+		assertThat(response.getStatus()).isEqualTo(429);
+		assertThat(response.getHeader("Retry-After")).isNotNull();
+		assertThat(chain.getRequest()).isNull();
+	}
+
+	@Test
+	void pathParametersDoNotBypassThePolicy() throws Exception {
+		post("/api/auth/login", "{}", "10.0.0.1", new MockFilterChain());
+		post("/api/auth/login", "{}", "10.0.0.1", new MockFilterChain());
+
+		assertThat(post("/api/auth/login;x=1", "{}", "10.0.0.1", new MockFilterChain()).getStatus()).isEqualTo(429);
+	}
+
+	@Test
+	void clientsBehindTheProxyGetTheirOwnBuckets() throws Exception {
+		// What server.forward-headers-strategy=native installs in front of every filter
+		RemoteIpFilter remoteIpFilter = new RemoteIpFilter();
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+			request.setRemoteAddr("10.0.0.1");
+			request.addHeader("X-Forwarded-For", "203.0.113." + i);
+			request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			remoteIpFilter.doFilter(request, response, (forwarded, forwardedResponse) ->
+					filter.doFilter(forwarded, forwardedResponse, new MockFilterChain()));
+
+			assertThat(response.getStatus()).isEqualTo(200);
+		}
+	}
+
+	@Test
+	void otherPathsAreNotFiltered() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			assertThat(post("/api/products", "{}", "10.0.0.1", new MockFilterChain()).getStatus()).isEqualTo(200);
+		}
+	}
+
+	private MockHttpServletResponse post(String uri, String body, String ip, MockFilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		request.setRemoteAddr(ip);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+}
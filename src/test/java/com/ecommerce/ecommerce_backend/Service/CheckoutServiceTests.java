@@ -0,0 +1,53 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.CheckoutRequest;
+import com.ecommerce.ecommerce_backend.repository.CartRepository;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.ProductRepository;
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CheckoutServiceTests {
+
+	@Test
+	void saturatedLookupPoolFailsFastAndCancelsWhatWasSubmitted() {
+		// Takes the first lookup and never runs it, then rejects like a saturated pool
+		List<Runnable> accepted = new ArrayList<>();
+		Executor executor = task -> {
+			if (!accepted.isEmpty()) {
+				throw new RejectedExecutionException("pool saturated");
+			}
+			accepted.add(task);
+		};
+		UserRepository userRepository = mock(UserRepository.class);
+		PaymentGateway paymentGateway = mock(PaymentGateway.class);
+		CheckoutService service = new CheckoutService(userRepository, mock(ProductRepository.class),
+				mock(CustomerOrderRepository.class), mock(CartRepository.class), mock(EmailService.class),
+				mock(OrderStatusService.class), mock(InventoryService.class), paymentGateway,
+				mock(PendingPaymentIntentService.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+				executor);
+
+		CheckoutRequest request = new CheckoutRequest();
+		request.setUserId(7L);
+		request.setPaymentIntentId("pi_1");
+		request.setCartItems(List.of());
+
+		assertThatThrownBy(() -> service.placeOrder(request, 1)).isInstanceOf(RejectedExecutionException.class);
+		assertThat(accepted).hasSize(1);
+		// A cancelled lookup does nothing once a thread finally picks it up
+		accepted.get(0).run();
+		verifyNoInteractions(userRepository, paymentGateway);
+	}
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdentityServiceTests {
+
+	private UserRepository userRepository;
+	private IdentityService service;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		List<Object[]> rows = List.<Object[]>of(new Object[] { "USER", 7L, "alice", "hash", "alice@example.com", "Alice", null });
+		when(userRepository.findIdentityRows("alice")).thenReturn(rows);
+		service = new IdentityService(userRepository, 100, 60_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void invalidateAfterCommitKeepsEntryUntilCommit() {
+		service.findByUsername("alice");
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.invalidateAfterCommit("alice");
+		service.findByUsername("alice");
+		verify(userRepository, times(1)).findIdentityRows("alice");
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+		service.findByUsername("alice");
+		verify(userRepository, times(2)).findIdentityRows("alice");
+	}
+
+	@Test
+	void invalidateAfterCommitOutsideTransactionEvictsAtOnce() {
+		service.findByUsername("alice");
+
+		service.invalidateAfterCommit("alice");
+		service.findByUsername("alice");
+
+		verify(userRepository, times(2)).findIdentityRows("alice");
+	}
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.CheckoutRequest;
+import com.ecommerce.ecommerce_backend.entity.OrderIntake;
+import com.ecommerce.ecommerce_backend.repository.OrderIntakeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceTests {
+
+	private OrderIntakeRepository intakeRepository;
+	private OrderIntakeService service;
+
+	@BeforeEach
+	void setUp() {
+		intakeRepository = mock(OrderIntakeRepository.class);
+		service = new OrderIntakeService(intakeRepository, mock(CheckoutService.class), new ObjectMapper(),
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), 1);
+	}
+
+	@Test
+	void concurrentSubmissionReturnsTheIntakeThatWon() {
+		OrderIntake winner = new OrderIntake("tracking-1", 7L, "pi_1", "{}");
+		when(intakeRepository.findFirstByPaymentIntentIdAndStatusIn(eq("pi_1"), any()))
+				.thenReturn(Optional.empty(), Optional.of(winner));
+		when(intakeRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_order_intake_open_payment_intent"));
+
+		assertThat(service.accept(request("pi_1"), 7L)).isSameAs(winner);
+	}
+
+	@Test
+	void concurrentSubmissionByAnotherUserIsRejected() {
+		OrderIntake winner = new OrderIntake("tracking-1", 8L, "pi_1", "{}");
+		when(intakeRepository.findFirstByPaymentIntentIdAndStatusIn(eq("pi_1"), any()))
+				.thenReturn(Optional.empty(), Optional.of(winner));
+		when(intakeRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_order_intake_open_payment_intent"));
+
+		assertThatThrownBy(() -> service.accept(request("pi_1"), 7L)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void failedIntakeReleasesItsPaymentIntent() {
+		OrderIntake intake = new OrderIntake("tracking-1", 7L, "pi_1", "{}");
+
+		intake.setStatus(OrderIntake.Status.FAILED);
+		assertThat(intake).extracting("openPaymentIntentId").isNull();
+
+		intake.setStatus(OrderIntake.Status.QUEUED);
+		assertThat(intake).extracting("openPaymentIntentId").isEqualTo("pi_1");
+	}
+
+	private static CheckoutRequest request(String paymentIntentId) {
+		CheckoutRequest request = new CheckoutRequest();
+		request.setPaymentIntentId(paymentIntentId);
+		request.setCartItems(List.of());
+		return request;
+	}
+}
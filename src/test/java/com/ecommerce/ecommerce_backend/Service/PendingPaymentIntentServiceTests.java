@@ -0,0 +1,101 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.PaymentIntentDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PendingPaymentIntentServiceTests {
+
+	private static final Map<Long, Integer> QUANTITIES = Map.of(1L, 2);
+	private static final Map<Long, Double> PRICES = Map.of(1L, 5.0);
+
+	private PaymentGateway paymentGateway;
+	private InventoryService inventoryService;
+	private PendingPaymentIntentService service;
+
+	@BeforeEach
+	void setUp() {
+		paymentGateway = mock(PaymentGateway.class);
+		inventoryService = mock(InventoryService.class);
+		service = new PendingPaymentIntentService(paymentGateway, inventoryService);
+		ReflectionTestUtils.setField(service, "ttlMinutes", 60L);
+		ReflectionTestUtils.setField(service, "verifyAfterMs", 60_000L);
+	}
+
+	@Test
+	void reusesIntentForUnchangedCart() throws Exception {
+		when(paymentGateway.createPaymentIntent(1000, "usd", null)).thenReturn(intent("pi_1", "requires_payment_method", 1000));
+
+		PaymentIntentDetails first = service.obtain(7L, QUANTITIES, PRICES, 1000, "usd");
+		PaymentIntentDetails second = service.obtain(7L, QUANTITIES, PRICES, 1000, "usd");
+
+		assertThat(second.getId()).isEqualTo(first.getId());
+		verify(inventoryService).reserve("pi_1", QUANTITIES);
+		verify(inventoryService).renew("pi_1", QUANTITIES);
+		verify(paymentGateway, never()).updatePaymentIntent(anyString(), anyLong(), anyString());
+	}
+
+	@Test
+	void updatesIntentInPlaceWhenCartChanged() throws Exception {
+		when(paymentGateway.createPaymentIntent(1000, "usd", null)).thenReturn(intent("pi_1", "requires_payment_method", 1000));
+		when(paymentGateway.updatePaymentIntent("pi_1", 1500, "usd")).thenReturn(intent("pi_1", "requires_payment_method", 1500));
+
+		service.obtain(7L, QUANTITIES, PRICES, 1000, "usd");
+		service.cartChanged(7L);
+		PaymentIntentDetails updated = service.obtain(7L, Map.of(1L, 3), PRICES, 1500, "usd");
+
+		assertThat(updated.getId()).isEqualTo("pi_1");
+		assertThat(updated.getAmount()).isEqualTo(1500L);
+		verify(inventoryService).renew("pi_1", Map.of(1L, 3));
+		verify(paymentGateway, never()).cancelPaymentIntent(anyString());
+	}
+
+	@Test
+	void replacedIntentIsCancelledAndItsStockReleased() throws Exception {
+		when(paymentGateway.createPaymentIntent(anyLong(), anyString(), any()))
+				.thenReturn(intent("pi_1", "requires_payment_method", 1000), intent("pi_2", "requires_payment_method", 1500));
+		when(paymentGateway.updatePaymentIntent("pi_1", 1500, "usd"))
+				.thenThrow(new PaymentGatewayException("unexpected state", "payment_intent_unexpected_state", false));
+		when(paymentGateway.retrievePaymentIntent("pi_1")).thenReturn(intent("pi_1", "requires_action", 1000));
+
+		service.obtain(7L, QUANTITIES, PRICES, 1000, "usd");
+		service.cartChanged(7L);
+		PaymentIntentDetails replacement = service.obtain(7L, Map.of(1L, 3), PRICES, 1500, "usd");
+
+		assertThat(replacement.getId()).isEqualTo("pi_2");
+		verify(paymentGateway).cancelPaymentIntent("pi_1");
+		verify(inventoryService).release("pi_1");
+		verify(inventoryService).reserve("pi_2", Map.of(1L, 3));
+	}
+
+	@Test
+	void replacedIntentThatIsBeingPaidIsLeftAlone() throws Exception {
+		when(paymentGateway.createPaymentIntent(anyLong(), anyString(), any()))
+				.thenReturn(intent("pi_1", "requires_payment_method", 1000), intent("pi_2", "requires_payment_method", 1500));
+		when(paymentGateway.updatePaymentIntent("pi_1", 1500, "usd")).thenReturn(intent("pi_1", "processing", 1500));
+		when(paymentGateway.retrievePaymentIntent("pi_1")).thenReturn(intent("pi_1", "processing", 1500));
+
+		service.obtain(7L, QUANTITIES, PRICES, 1000, "usd");
+		service.cartChanged(7L);
+		service.obtain(7L, Map.of(1L, 3), PRICES, 1500, "usd");
+
+		verify(paymentGateway, never()).cancelPaymentIntent("pi_1");
+		verify(inventoryService, never()).release("pi_1");
+	}
+
+	private static PaymentIntentDetails intent(String id, String status, long amount) {
+		return new PaymentIntentDetails(id, status, id + "_secret", amount, "usd");
+	}
+}
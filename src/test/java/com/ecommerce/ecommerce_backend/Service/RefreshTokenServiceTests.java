@@ -0,0 +1,109 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.RefreshTokenFamily;
+import com.ecommerce.ecommerce_backend.repository.RefreshTokenFamilyRepository;
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTests {
+
+	private static final String FAMILY_ID = "family-1";
+
+	private RefreshTokenFamilyRepository familyRepository;
+	private JwtUtil jwtUtil;
+	private RefreshTokenService service;
+	private RefreshTokenFamily row;
+
+	@BeforeEach
+	void setUp() {
+		familyRepository = mock(RefreshTokenFamilyRepository.class);
+		jwtUtil = mock(JwtUtil.class);
+		service = new RefreshTokenService(familyRepository, jwtUtil, mock(TokenRevocationService.class), 100);
+		ReflectionTestUtils.setField(service, "graceMs", 10_000L);
+
+		AtomicInteger issued = new AtomicInteger();
+		when(jwtUtil.generateRefreshToken(eq("alice"), eq(FAMILY_ID))).thenAnswer(invocation -> "refresh-" + issued.incrementAndGet());
+		when(jwtUtil.generateAccessToken(eq("alice"), any(), eq(7L))).thenAnswer(invocation -> "access-" + issued.get());
+		when(jwtUtil.getRefreshTokenExpirationMillis()).thenReturn(3_600_000L);
+		when(jwtUtil.tryVerify(anyString())).thenAnswer(invocation -> new VerifiedToken("alice", Set.of(), null,
+				invocation.getArgument(0), FAMILY_ID, Instant.now(), Instant.now().plusSeconds(3600)));
+
+		row = new RefreshTokenFamily(FAMILY_ID, "alice", 7L, "USER", JwtUtil.hash("refresh-0"), LocalDateTime.now().plusHours(1));
+		when(familyRepository.findByFamilyId(FAMILY_ID)).thenAnswer(invocation -> Optional.of(row));
+		when(familyRepository.rotate(eq(FAMILY_ID), anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+			if (!invocation.getArgument(1).equals(row.getTokenHash())) {
+				return 0;
+			}
+			ReflectionTestUtils.setField(row, "previousTokenHash", invocation.getArgument(1));
+			ReflectionTestUtils.setField(row, "tokenHash", invocation.getArgument(2));
+			ReflectionTestUtils.setField(row, "rotatedAt", invocation.getArgument(3));
+			return 1;
+		});
+	}
+
+	@Test
+	void rotatesCurrentToken() {
+		RefreshTokenService.TokenPair pair = service.rotate("refresh-0");
+
+		assertThat(pair.getRefreshToken()).isEqualTo("refresh-1");
+		assertThat(row.getTokenHash()).isEqualTo(JwtUtil.hash("refresh-1"));
+		assertThat(row.getPreviousTokenHash()).isEqualTo(JwtUtil.hash("refresh-0"));
+	}
+
+	@Test
+	void previousTokenInsideGraceWindowGetsSamePair() {
+		RefreshTokenService.TokenPair first = service.rotate("refresh-0");
+		RefreshTokenService.TokenPair second = service.rotate("refresh-0");
+
+		assertThat(second.getRefreshToken()).isEqualTo(first.getRefreshToken());
+		assertThat(second.getAccessToken()).isEqualTo(first.getAccessToken());
+		verify(familyRepository, never()).revoke(anyString());
+		assertThat(service.rotate("refresh-1").getRefreshToken()).isEqualTo("refresh-2");
+	}
+
+	@Test
+	void previousTokenRotatedOnAnotherNodeKeepsFamily() {
+		ReflectionTestUtils.setField(row, "previousTokenHash", JwtUtil.hash("refresh-0"));
+		ReflectionTestUtils.setField(row, "tokenHash", JwtUtil.hash("elsewhere"));
+		ReflectionTestUtils.setField(row, "rotatedAt", LocalDateTime.now());
+
+		assertThat(service.rotate("refresh-0")).isNull();
+		verify(familyRepository, never()).revoke(anyString());
+	}
+
+	@Test
+	void previousTokenAfterGraceWindowRevokesFamily() {
+		service.rotate("refresh-0");
+		ReflectionTestUtils.setField(row, "rotatedAt", LocalDateTime.now().minusSeconds(11));
+
+		assertThat(service.rotate("refresh-0")).isNull();
+		verify(familyRepository).revoke(FAMILY_ID);
+	}
+
+	@Test
+	void olderTokenRevokesFamily() {
+		service.rotate("refresh-0");
+		service.rotate("refresh-1");
+
+		assertThat(service.rotate("refresh-0")).isNull();
+		verify(familyRepository).revoke(FAMILY_ID);
+	}
+}
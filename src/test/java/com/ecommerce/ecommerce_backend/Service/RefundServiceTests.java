@@ -0,0 +1,181 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.RefundDetails;
+import com.ecommerce.ecommerce_backend.entity.RefundJob;
+import com.ecommerce.ecommerce_backend.repository.CustomerOrderRepository;
+import com.ecommerce.ecommerce_backend.repository.RefundJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefundServiceTests {
+
+	private RefundJobRepository refundJobRepository;
+	private CustomerOrderRepository orderRepository;
+	private PaymentGateway paymentGateway;
+	private RefundService service;
+
+	@BeforeEach
+	void setUp() {
+		refundJobRepository = mock(RefundJobRepository.class);
+		orderRepository = mock(CustomerOrderRepository.class);
+		paymentGateway = mock(PaymentGateway.class);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		service = new RefundService(refundJobRepository, orderRepository, paymentGateway, transactionTemplate, 1, 10);
+		ReflectionTestUtils.setField(service, "maxAttempts", 8);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void dispatchSendsDueJobToProvider() throws Exception {
+		RefundJob job = job(1L, 10L, null, RefundJob.Status.PROCESSING);
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of(1L));
+		when(refundJobRepository.claim(eq(1L), eq(RefundJob.Status.PENDING), eq(RefundJob.Status.PROCESSING), any())).thenReturn(1);
+		when(refundJobRepository.findById(1L)).thenReturn(Optional.of(job));
+		when(paymentGateway.refund("pi_10", 1000, "refund-order-10")).thenReturn(new RefundDetails("re_1", "succeeded", 1000L));
+
+		service.dispatchDue();
+
+		verify(orderRepository, timeout(2000)).updateRefundStatus(10L, "SUCCEEDED");
+		assertThat(job.getStatus()).isEqualTo(RefundJob.Status.SUCCEEDED);
+		assertThat(job.getRefundId()).isEqualTo("re_1");
+	}
+
+	@Test
+	void dispatchRequeuesRetryableFailure() throws Exception {
+		RefundJob job = job(1L, 10L, null, RefundJob.Status.PROCESSING);
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of(1L));
+		when(refundJobRepository.claim(eq(1L), eq(RefundJob.Status.PENDING), eq(RefundJob.Status.PROCESSING), any())).thenReturn(1);
+		when(refundJobRepository.findById(1L)).thenReturn(Optional.of(job));
+		when(paymentGateway.refund("pi_10", 1000, "refund-order-10"))
+				.thenThrow(new PaymentGatewayException("rate limited", "rate_limit", true));
+
+		service.dispatchDue();
+
+		verify(orderRepository, timeout(2000)).updateRefundStatus(10L, "PENDING");
+		assertThat(job.getMessage()).isEqualTo("rate limited");
+	}
+
+	@Test
+	void dispatchRequeuesJobWhoseResultCouldNotBeRecorded() throws Exception {
+		RefundJob job = job(1L, 10L, null, RefundJob.Status.PROCESSING);
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of(1L));
+		when(refundJobRepository.claim(eq(1L), eq(RefundJob.Status.PENDING), eq(RefundJob.Status.PROCESSING), any())).thenReturn(1);
+		when(refundJobRepository.findById(1L)).thenReturn(Optional.of(job));
+		when(paymentGateway.refund("pi_10", 1000, "refund-order-10")).thenReturn(new RefundDetails("re_1", "succeeded", 1000L));
+		when(refundJobRepository.save(job)).thenThrow(new IllegalStateException("lock wait timeout")).thenReturn(job);
+
+		service.dispatchDue();
+
+		verify(orderRepository, timeout(2000)).updateRefundStatus(10L, "PENDING");
+		assertThat(job.getStatus()).isEqualTo(RefundJob.Status.PENDING);
+		assertThat(job.getMessage()).isEqualTo("lock wait timeout");
+	}
+
+	@Test
+	void unexpectedFailureOnLastAttemptFailsTheJob() throws Exception {
+		RefundJob job = job(1L, 10L, null, RefundJob.Status.PROCESSING);
+		ReflectionTestUtils.setField(job, "attempts", 8);
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of(1L));
+		when(refundJobRepository.claim(eq(1L), eq(RefundJob.Status.PENDING), eq(RefundJob.Status.PROCESSING), any())).thenReturn(1);
+		when(refundJobRepository.findById(1L)).thenReturn(Optional.of(job));
+		when(paymentGateway.refund("pi_10", 1000, "refund-order-10")).thenThrow(new IllegalStateException("unexpected"));
+
+		service.dispatchDue();
+
+		verify(orderRepository, timeout(2000)).updateRefundStatus(10L, "FAILED");
+		assertThat(job.getStatus()).isEqualTo(RefundJob.Status.FAILED);
+	}
+
+	@Test
+	void staleJobsOutOfAttemptsAreFailedInsteadOfRequeued() {
+		when(refundJobRepository.findExhaustedStaleOrderIds(eq(RefundJob.Status.PROCESSING), any(), eq(8))).thenReturn(List.of(10L));
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of());
+
+		service.dispatchDue();
+
+		verify(refundJobRepository).requeueStale(eq(RefundJob.Status.PROCESSING), eq(RefundJob.Status.PENDING), any(), eq(8), any());
+		verify(refundJobRepository).failExhaustedStale(eq(RefundJob.Status.PROCESSING), eq(RefundJob.Status.FAILED), any(), eq(8),
+				any(), any());
+		verify(orderRepository).updateRefundStatus(10L, "FAILED");
+	}
+
+	@Test
+	void dispatchSkipsJobClaimedElsewhere() throws Exception {
+		when(refundJobRepository.findDueIds(eq(RefundJob.Status.PENDING), any(), any())).thenReturn(List.of(1L));
+		when(refundJobRepository.claim(eq(1L), eq(RefundJob.Status.PENDING), eq(RefundJob.Status.PROCESSING), any())).thenReturn(0);
+
+		service.dispatchDue();
+
+		verify(refundJobRepository, timeout(2000)).claim(eq(1L), any(), any(), any());
+		verify(paymentGateway, never()).refund(any(), anyLong(), any());
+	}
+
+	@Test
+	void reconcileKeepsGoingPastFailingRefunds() throws Exception {
+		RefundJob unreachable = job(1L, 10L, "re_1", RefundJob.Status.SUBMITTED);
+		RefundJob rejected = job(2L, 20L, "re_2", RefundJob.Status.SUBMITTED);
+		RefundJob settled = job(3L, 30L, "re_3", RefundJob.Status.SUBMITTED);
+		RefundJob pending = job(4L, 40L, "re_4", RefundJob.Status.SUBMITTED);
+		when(refundJobRepository.findPageByStatus(eq(RefundJob.Status.SUBMITTED), eq(0L), any()))
+				.thenReturn(List.of(unreachable, rejected, settled, pending));
+		when(paymentGateway.retrieveRefund("re_1")).thenThrow(new PaymentGatewayException("timeout", "api_connection", true));
+		when(paymentGateway.retrieveRefund("re_2")).thenThrow(new PaymentGatewayException("no such refund", "resource_missing", false));
+		when(paymentGateway.retrieveRefund("re_3")).thenReturn(new RefundDetails("re_3", "succeeded", 1000L));
+		when(paymentGateway.retrieveRefund("re_4")).thenReturn(new RefundDetails("re_4", "pending", 1000L));
+
+		service.reconcile();
+
+		assertThat(unreachable.getStatus()).isEqualTo(RefundJob.Status.SUBMITTED);
+		assertThat(rejected.getStatus()).isEqualTo(RefundJob.Status.FAILED);
+		assertThat(rejected.getMessage()).contains("needs attention");
+		assertThat(settled.getStatus()).isEqualTo(RefundJob.Status.SUCCEEDED);
+		assertThat(pending.getStatus()).isEqualTo(RefundJob.Status.SUBMITTED);
+		verify(orderRepository, never()).updateRefundStatus(eq(10L), any());
+		verify(orderRepository).updateRefundStatus(20L, "FAILED");
+		verify(orderRepository).updateRefundStatus(30L, "SUCCEEDED");
+		verify(orderRepository, never()).updateRefundStatus(eq(40L), any());
+	}
+
+	@Test
+	void reconcileContinuesWhenSavingOneRefundFails() throws Exception {
+		RefundJob first = job(1L, 10L, "re_1", RefundJob.Status.SUBMITTED);
+		RefundJob second = job(2L, 20L, "re_2", RefundJob.Status.SUBMITTED);
+		when(refundJobRepository.findPageByStatus(eq(RefundJob.Status.SUBMITTED), eq(0L), any()))
+				.thenReturn(List.of(first, second));
+		when(paymentGateway.retrieveRefund(any())).thenReturn(new RefundDetails("re", "succeeded", 1000L));
+		when(refundJobRepository.save(first)).thenThrow(new IllegalStateException("lock wait timeout"));
+
+		service.reconcile();
+
+		verify(orderRepository).updateRefundStatus(20L, "SUCCEEDED");
+	}
+
+	private static RefundJob job(Long id, Long orderId, String refundId, RefundJob.Status status) {
+		RefundJob job = new RefundJob(orderId, "pi_" + orderId, 1000);
+		ReflectionTestUtils.setField(job, "id", id);
+		job.setRefundId(refundId);
+		job.setStatus(status);
+		return job;
+	}
+}
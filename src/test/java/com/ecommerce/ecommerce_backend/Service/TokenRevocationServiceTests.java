@@ -0,0 +1,61 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import com.ecommerce.ecommerce_backend.entity.TokenRevocation;
+import com.ecommerce.ecommerce_backend.repository.TokenRevocationRepository;
+import com.ecommerce.ecommerce_backend.util.JwtUtil;
+import com.ecommerce.ecommerce_backend.util.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTests {
+
+	private TokenRevocationRepository revocationRepository;
+	private TokenRevocationService service;
+
+	@BeforeEach
+	void setUp() {
+		revocationRepository = mock(TokenRevocationRepository.class);
+		when(revocationRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		JwtUtil jwtUtil = mock(JwtUtil.class);
+		when(jwtUtil.getMaxTokenLifetimeMillis()).thenReturn(3_600_000L);
+		service = new TokenRevocationService(revocationRepository, jwtUtil, 1000, 0.01);
+	}
+
+	@Test
+	void revokeSubjectKeepsTokensIssuedAfterwards() {
+		long revokedAt = revokeSubject("alice");
+
+		assertThat(service.isRevoked(token("alice", Instant.ofEpochMilli(revokedAt - 1)))).isTrue();
+		assertThat(service.isRevoked(token("alice", Instant.ofEpochMilli(revokedAt)))).isTrue();
+		assertThat(service.isRevoked(token("alice", Instant.ofEpochMilli(revokedAt + 1)))).isFalse();
+		assertThat(service.isRevoked(token("bob", Instant.ofEpochMilli(revokedAt - 1)))).isFalse();
+	}
+
+	@Test
+	void revokeSubjectRevokesTokensWithoutIssueTime() {
+		revokeSubject("alice");
+
+		assertThat(service.isRevoked(token("alice", null))).isTrue();
+	}
+
+	private long revokeSubject(String username) {
+		service.revokeSubject(username);
+		ArgumentCaptor<TokenRevocation> saved = ArgumentCaptor.forClass(TokenRevocation.class);
+		verify(revocationRepository).save(saved.capture());
+		return saved.getValue().getRevokedAt();
+	}
+
+	private static VerifiedToken token(String subject, Instant issuedAt) {
+		return new VerifiedToken(subject, Set.of(), 1L, "jti-" + subject, null, issuedAt, Instant.now().plusSeconds(600));
+	}
+}
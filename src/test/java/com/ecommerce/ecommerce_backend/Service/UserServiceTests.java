@@ -0,0 +1,43 @@
+package com.ecommerce.ecommerce_backend.Service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserServiceTests {
+
+	@Test
+	void emailConstraintMapsToEmailMessage() {
+		RuntimeException mapped = UserService.toDuplicateAccount(violation(
+				"Duplicate entry 'alice@example.com' for key 'account_identity.uk_account_identity_email'"));
+
+		assertThat(mapped).isInstanceOf(DuplicateAccountException.class).hasMessage("Email already exists");
+		assertThat(((DuplicateAccountException) mapped).getField()).isEqualTo(DuplicateAccountException.Field.EMAIL);
+	}
+
+	@Test
+	void usernameConstraintsMapToUsernameMessage() {
+		RuntimeException identity = UserService.toDuplicateAccount(violation(
+				"Duplicate entry 'alice' for key 'account_identity.uk_account_identity_username'"));
+		RuntimeException users = UserService.toDuplicateAccount(violation(
+				"Duplicate entry 'alice' for key 'users.uk_users_username'"));
+
+		assertThat(identity).isInstanceOf(DuplicateAccountException.class).hasMessage("Username already exists");
+		assertThat(users).isInstanceOf(DuplicateAccountException.class).hasMessage("Username already exists");
+	}
+
+	@Test
+	void otherViolationsArePassedOn() {
+		DataIntegrityViolationException notNull = violation("Column 'email' cannot be null");
+
+		assertThat(UserService.toDuplicateAccount(notNull)).isSameAs(notNull);
+	}
+
+	private static DataIntegrityViolationException violation(String message) {
+		return new DataIntegrityViolationException("could not execute statement",
+				new SQLIntegrityConstraintViolationException(message));
+	}
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.ecommerce_backend.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStatusTransitionTests {
+
+	@Test
+	void paidOrdersCanOnlyBeCancelled() {
+		assertThat(OrderStatus.PAID.canTransitionTo(OrderStatus.CANCELLED)).isTrue();
+		assertThat(OrderStatus.PAID.canTransitionTo(OrderStatus.PLACED)).isFalse();
+		assertThat(OrderStatus.CANCELLED.allowedTransitions()).isEmpty();
+	}
+
+	@Test
+	void shippedOrdersCannotBeCancelled() {
+		assertThat(ShipmentStatus.PACKING.canTransitionTo(ShipmentStatus.SHIPPED)).isTrue();
+		assertThat(ShipmentStatus.PACKING.canTransitionTo(ShipmentStatus.CANCELLED)).isTrue();
+		assertThat(ShipmentStatus.SHIPPED.canTransitionTo(ShipmentStatus.CANCELLED)).isFalse();
+	}
+
+	@Test
+	void legacyLabelsAreRecognised() {
+		assertThat(OrderStatus.fromLabel("Cancelled")).isEqualTo(OrderStatus.CANCELLED);
+		assertThat(ShipmentStatus.fromLabel("Packing")).isEqualTo(ShipmentStatus.PACKING);
+		assertThat(ShipmentStatus.fromLabel("SHIPPED")).isEqualTo(ShipmentStatus.SHIPPED);
+		assertThatThrownBy(() -> OrderStatus.fromLabel("Lost")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+	@Test
+	void opensOnceFailureRateIsReached() {
+		CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 50, 60_000);
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onSuccess();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void halfOpenProbeDecidesNextState() throws InterruptedException {
+		CircuitBreaker breaker = new CircuitBreaker("test", 4, 2, 50, 10);
+		breaker.onFailure();
+		breaker.onFailure();
+		Thread.sleep(20);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isFalse();
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+		Thread.sleep(20);
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onSuccess();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+}
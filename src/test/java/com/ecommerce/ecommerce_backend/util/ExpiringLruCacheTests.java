@@ -0,0 +1,49 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringLruCacheTests {
+
+	@Test
+	void evictsLeastRecentlyUsedEntry() {
+		ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, 1);
+		long expiresAt = System.currentTimeMillis() + 60_000;
+		cache.put("a", 1, expiresAt);
+		cache.put("b", 2, expiresAt);
+		assertThat(cache.get("a")).isEqualTo(1);
+
+		cache.put("c", 3, expiresAt);
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("a")).isEqualTo(1);
+		assertThat(cache.get("c")).isEqualTo(3);
+		assertThat(cache.getEvictions()).isEqualTo(1);
+		assertThat(cache.getHitRatio()).isEqualTo(0.75);
+	}
+
+	@Test
+	void expiredEntriesAreNotReturned() throws InterruptedException {
+		ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(10, 2);
+		cache.put("past", 1, System.currentTimeMillis() - 1);
+		cache.put("soon", 2, System.currentTimeMillis() + 20);
+		assertThat(cache.get("past")).isNull();
+		assertThat(cache.get("soon")).isEqualTo(2);
+
+		Thread.sleep(30);
+		assertThat(cache.get("soon")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void removeIfMatchesOnValue() {
+		ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(10, 4);
+		long expiresAt = System.currentTimeMillis() + 60_000;
+		cache.put("t1", "alice", expiresAt);
+		cache.put("t2", "bob", expiresAt);
+		cache.put("t3", "alice", expiresAt);
+
+		assertThat(cache.removeIf((key, value) -> value.equals("alice"))).isEqualTo(2);
+		assertThat(cache.get("t2")).isEqualTo("bob");
+	}
+}
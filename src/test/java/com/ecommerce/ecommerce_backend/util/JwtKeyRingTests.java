@@ -0,0 +1,58 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtKeyRingTests {
+
+	@Test
+	void privateKeysAreOwnerOnly() throws Exception {
+		Path directory = Files.createTempDirectory("jwt-keys");
+		JwtKeyRing keyRing = new JwtKeyRing("ES256", directory, null);
+
+		String kid = keyRing.generate();
+
+		assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory.resolve(kid + ".key"))))
+				.isEqualTo("rw-------");
+	}
+
+	@Test
+	void activeKidFileSwitchesSigningKeyOnReload() throws Exception {
+		Path directory = Files.createTempDirectory("jwt-keys");
+		JwtKeyRing keyRing = new JwtKeyRing("ES256", directory, null);
+		keyRing.load();
+		String first = keyRing.getSigningKey().getKid();
+		Files.copy(directory.resolve(first + ".pub"), directory.resolve("next.pub"));
+		Files.copy(directory.resolve(first + ".key"), directory.resolve("next.key"));
+
+		Files.writeString(directory.resolve("active-kid"), "next\n");
+		keyRing.load();
+		assertThat(keyRing.getSigningKey().getKid()).isEqualTo("next");
+
+		Files.writeString(directory.resolve("active-kid"), first);
+		keyRing.load();
+		assertThat(keyRing.getSigningKey().getKid()).isEqualTo(first);
+		assertThat(keyRing.getPublicKeys()).containsKeys(first, "next");
+	}
+
+	@Test
+	void activeKidFileOverridesConfiguredKid() throws Exception {
+		Path directory = Files.createTempDirectory("jwt-keys");
+		JwtKeyRing keyRing = new JwtKeyRing("EdDSA", directory, "configured");
+		String generated = keyRing.generate();
+		Files.copy(directory.resolve(generated + ".pub"), directory.resolve("configured.pub"));
+		Files.copy(directory.resolve(generated + ".key"), directory.resolve("configured.key"));
+
+		keyRing.load();
+		assertThat(keyRing.getSigningKey().getKid()).isEqualTo("configured");
+
+		Files.writeString(directory.resolve("active-kid"), generated);
+		keyRing.load();
+		assertThat(keyRing.getSigningKey().getKid()).isEqualTo(generated);
+	}
+}
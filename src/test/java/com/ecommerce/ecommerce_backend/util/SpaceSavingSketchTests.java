@@ -0,0 +1,41 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTests {
+
+	@Test
+	void heavyHittersSurviveEviction() {
+		SpaceSavingSketch<Long> sketch = new SpaceSavingSketch<>(5);
+		for (long i = 0; i < 1000; i++) {
+			sketch.offer(1L, 3);
+			sketch.offer(2L);
+			sketch.offer(100 + i);
+		}
+
+		List<SpaceSavingSketch.Entry<Long>> top = sketch.top(2);
+		assertThat(top).extracting(SpaceSavingSketch.Entry::getKey).containsExactly(1L, 2L);
+		assertThat(top.get(0).getCount()).isGreaterThanOrEqualTo(3000);
+		assertThat(sketch.size()).isEqualTo(5);
+		assertThat(sketch.getTotal()).isEqualTo(5000);
+	}
+
+	@Test
+	void mergeCombinesCounts() {
+		SpaceSavingSketch<String> first = new SpaceSavingSketch<>(10);
+		SpaceSavingSketch<String> second = new SpaceSavingSketch<>(10);
+		first.offer("a", 4);
+		first.offer("b", 1);
+		second.offer("b", 6);
+
+		first.merge(second);
+
+		assertThat(first.estimate("b")).isEqualTo(7);
+		assertThat(first.top(1).get(0).getKey()).isEqualTo("b");
+		assertThat(first.getTotal()).isEqualTo(11);
+	}
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTests {
+
+	@Test
+	void allowsBurstThenRejectsUntilRefilled() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 600, 100, 4);
+		long[] waits = new long[4];
+		for (int i = 0; i < waits.length; i++) {
+			waits[i] = limiter.tryAcquire("10.0.0.1");
+		}
+		assertThat(waits).startsWith(0, 0, 0);
+		assertThat(waits[3]).isPositive();
+		assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+
+		Thread.sleep(250);
+		assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+		assertThat(limiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	void boundsKeysAndEvictsRefilledBuckets() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 20, 8, 2);
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire("user" + i);
+		}
+		int size = limiter.size();
+		assertThat(size).isBetween(1, 8);
+
+		Thread.sleep(30);
+		assertThat(limiter.evictIdle()).isEqualTo(size);
+		assertThat(limiter.size()).isZero();
+	}
+
+	@Test
+	void parsesRequestsPerSeconds() {
+		TokenBucketRateLimiter limiter = TokenBucketRateLimiter.fromSpec("2/60", 100, 4);
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isZero();
+		assertThat(limiter.tryAcquire("a")).isBetween(1L, 30_000L);
+	}
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.ecommerce_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueUsernamesTests {
+
+	@Test
+	void derivesBaseFromNameOrEmail() {
+		assertThat(UniqueUsernames.base("John O'Brien", "jo@example.com")).isEqualTo("johnobrien");
+		assertThat(UniqueUsernames.base(null, "Jane.Doe@example.com")).isEqualTo("janedoe");
+		assertThat(UniqueUsernames.base("!!!", "x@example.com")).isEqualTo("user");
+	}
+
+	@Test
+	void picksSmallestFreeSuffix() {
+		assertThat(UniqueUsernames.firstFree("john", List.of())).isEqualTo("john");
+		assertThat(UniqueUsernames.firstFree("john", List.of("john1"))).isEqualTo("john");
+		assertThat(UniqueUsernames.firstFree("john", List.of("john", "john1", "john3", "johnny", "john007x")))
+				.isEqualTo("john2");
+		assertThat(UniqueUsernames.firstFree("john", List.of("john", "john1", "john2"))).isEqualTo("john3");
+	}
+}